@@ -0,0 +1,72 @@
+package org.korecky.jiracli;
+
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.korecky.jiracli.dto.Assignee;
+import org.korecky.jiracli.dto.Component;
+import org.korecky.jiracli.dto.Issue;
+import org.korecky.jiracli.dto.IssueDeserializer;
+import org.korecky.jiracli.dto.SprintIssues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link IssueDeserializer} with the previous approach, which deserialized the issue as a bean
+ * and then turned assignee, components and labels back to text to parse them a second time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IssueDeserializationBenchmark {
+
+    @Param({"100"})
+    int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper beanObjectMapper;
+    private byte[] page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JiraClient.createObjectMapper();
+        beanObjectMapper = JiraClient.createObjectMapper().addMixIn(Issue.class, BeanIssue.class);
+        page = new IssueFixtures(42).sprintIssuesPageBytes(0, pageSize, pageSize);
+    }
+
+    @Benchmark
+    public SprintIssues singlePass() throws IOException {
+        return objectMapper.readValue(page, SprintIssues.class);
+    }
+
+    @Benchmark
+    public SprintIssues reserializeAndReparse() throws IOException {
+        SprintIssues sprintIssues = beanObjectMapper.readValue(page, SprintIssues.class);
+        for (Issue issue : sprintIssues.getIssues()) {
+            Assignee assignee = beanObjectMapper.readValue(String.valueOf(issue.getFields().findValue("assignee")), Assignee.class);
+            issue.setAssignee(assignee);
+            List<Component> components = beanObjectMapper.readerForListOf(Component.class).readValue(String.valueOf(issue.getFields().findValue("components")));
+            issue.setComponents(components);
+            List<String> labels = beanObjectMapper.readerForListOf(String.class).readValue(String.valueOf(issue.getFields().findValue("labels")));
+            issue.setLabels(labels);
+        }
+        return sprintIssues;
+    }
+
+    /**
+     * Mix-in switching {@link Issue} back to the default bean deserialization.
+     */
+    @JsonDeserialize(using = JsonDeserializer.None.class)
+    private abstract static class BeanIssue {
+    }
+}
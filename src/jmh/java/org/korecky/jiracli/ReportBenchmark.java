@@ -0,0 +1,72 @@
+package org.korecky.jiracli;
+
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.dto.Issue;
+import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.report.IssueFacts;
+import org.korecky.jiracli.report.SprintVelocity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report generation after the sprint issues were downloaded: reducing issues to {@link IssueFacts}
+ * and summing the velocity of teams. Writing the report is measured by {@link ReportSinkBenchmark}.
+ * <p>
+ * Issues hold only the fields requested by {@link Reports}, like the real responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int issueCount;
+
+    private JiraClient jiraClient;
+    private Reports reports;
+    private Sprint sprint;
+    private List<Issue> issues;
+    private IssueFacts facts;
+
+    @Setup
+    public void setUp() {
+        Server server = Server.builder().url("https://your-jira-server.com").build();
+        Configuration configuration = Configuration.builder()
+                .server(server)
+                .storyPointsColumn(IssueFixtures.STORY_POINTS_COLUMN)
+                .teams(IssueFixtures.teams(20))
+                .build();
+        // The client is never called, the issues are already here
+        jiraClient = new JiraClient(server);
+        reports = new Reports(configuration, jiraClient);
+        sprint = Sprint.builder().id(IssueFixtures.SPRINT_ID).name("Sprint " + IssueFixtures.SPRINT_ID).build();
+        issues = new IssueFixtures(42).issues(issueCount, reports.requiredFields().getFields());
+        facts = reports.extractFacts(sprint, issues);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        jiraClient.close();
+    }
+
+    @Benchmark
+    public IssueFacts extractFacts() {
+        return reports.extractFacts(sprint, issues);
+    }
+
+    @Benchmark
+    public SprintVelocity velocity() {
+        return SprintVelocity.of(sprint, facts);
+    }
+}
@@ -0,0 +1,105 @@
+package org.korecky.jiracli;
+
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.Output;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.report.IssueFacts;
+import org.korecky.jiracli.sink.ReportFormat;
+import org.korecky.jiracli.sink.ReportSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the sprint report in every {@link ReportFormat} to a temporary folder.
+ * <p>
+ * {@link #firstReport()} is the first report of a fresh JVM, so it includes loading and initialising the classes
+ * of the sink, which is what a scripted run pays. Its fork and iteration counts are set by the annotations,
+ * run it from the benchmark jar so that the counts of the Gradle jmh block do not override them.
+ * Run with {@code -prof gc} for allocations and {@code -prof cl} for the number of loaded classes.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportSinkBenchmark {
+
+    @Param({"XLSX", "CSV", "JSONL"})
+    ReportFormat format;
+
+    @Param({"1000", "100000"})
+    int issueCount;
+
+    private Path outputFolder;
+    private JiraClient jiraClient;
+    private Reports reports;
+    private Sprint sprint;
+    private IssueFacts facts;
+
+    @Setup
+    public void setUp() throws IOException {
+        outputFolder = TempFolders.create("report-sink-benchmark");
+        Server server = Server.builder().url("https://your-jira-server.com").build();
+        Configuration configuration = Configuration.builder()
+                .server(server)
+                .outputFolder(outputFolder.toString())
+                .output(Output.builder().format(format).build())
+                .storyPointsColumn(IssueFixtures.STORY_POINTS_COLUMN)
+                .teams(IssueFixtures.teams(20))
+                .build();
+        // The client is never called, the issues are already here
+        jiraClient = new JiraClient(server);
+        reports = new Reports(configuration, jiraClient);
+        // The velocity sheet shows the dates of the sprint
+        sprint = Sprint.builder().id(IssueFixtures.SPRINT_ID).name("Sprint " + IssueFixtures.SPRINT_ID)
+                .startDate(LocalDateTime.of(2024, 3, 4, 9, 0))
+                .endDate(LocalDateTime.of(2024, 3, 18, 9, 0))
+                .build();
+        facts = reports.extractFacts(sprint, new IssueFixtures(42).issues(issueCount, reports.requiredFields().getFields()));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        jiraClient.close();
+        TempFolders.delete(outputFolder);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void writeReport() throws IOException {
+        write();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(10)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void firstReport() throws IOException {
+        write();
+    }
+
+    /**
+     * Builds all sheets and commits the report, the same way as {@link Reports#generate(Sprint)}.
+     */
+    private void write() throws IOException {
+        try (ReportSink sink = reports.createSink(sprint.getName())) {
+            reports.createSpreadsheetEpics(sink, facts);
+            reports.createSpreadsheetVelocityOfTeams(sink, sprint, facts);
+            sink.commit();
+        }
+    }
+}
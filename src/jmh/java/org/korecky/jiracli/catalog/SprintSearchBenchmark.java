@@ -0,0 +1,69 @@
+package org.korecky.jiracli.catalog;
+
+import org.korecky.jiracli.dto.Sprint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SprintNameIndex} with the previous linear {@code contains} scan over all sprint names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SprintSearchBenchmark {
+    private static final String[] TEAMS = {"NEO", "Platform", "Backend", "Frontend", "Mobile", "Data", "QA", "Payments"};
+
+    @Param({"50000"})
+    int sprintCount;
+
+    @Param({"neo sprint 4711", "payments"})
+    String query;
+
+    private List<Sprint> sprints;
+    private SprintNameIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        sprints = new ArrayList<>(sprintCount);
+        for (int i = 0; i < sprintCount; i++) {
+            String team = TEAMS[random.nextInt(TEAMS.length)];
+            sprints.add(Sprint.builder()
+                    .id(i)
+                    .name(team + " Team " + random.nextInt(200) + " Sprint " + i)
+                    .build());
+        }
+        index = new SprintNameIndex(sprints);
+    }
+
+    @Benchmark
+    public List<Sprint> index() {
+        return index.search(query);
+    }
+
+    @Benchmark
+    public List<Sprint> linearScan() {
+        List<Sprint> matchingSprints = new ArrayList<>();
+        for (Sprint sprint : sprints) {
+            if (sprint.getName().toLowerCase().contains(query.toLowerCase()))
+                matchingSprints.add(sprint);
+        }
+        return matchingSprints;
+    }
+
+    @Benchmark
+    public SprintNameIndex build() {
+        return new SprintNameIndex(sprints);
+    }
+}
@@ -0,0 +1,102 @@
+package org.korecky.jiracli.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.korecky.jiracli.IssueFixtures;
+import org.korecky.jiracli.JiraClient;
+import org.korecky.jiracli.dto.Issue;
+import org.korecky.jiracli.dto.SprintIssues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the report fields through {@link FieldPaths} with the previous recursive
+ * {@code JsonNode.findValue} searches. Both return the sum of story points of issues closed in the sprint.
+ * <p>
+ * {@code findValue} checks the direct children first, so it is only slow when a field is absent from the issue,
+ * for example a custom field which is not on the issue screen. {@code absentFields} removes the story points and
+ * sprint fields from every second issue to cover that case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FieldAccessBenchmark {
+
+    @Param({"1000"})
+    int issueCount;
+
+    @Param({"false", "true"})
+    boolean absentFields;
+
+    private List<Issue> issues;
+    private FieldPaths fieldPaths;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] page = new IssueFixtures(42).sprintIssuesPageBytes(0, issueCount, issueCount);
+        issues = JiraClient.createObjectMapper().readValue(page, SprintIssues.class).getIssues();
+        if (absentFields) {
+            for (int i = 0; i < issues.size(); i += 2) {
+                ObjectNode fields = (ObjectNode) issues.get(i).getFields();
+                fields.remove(IssueFixtures.STORY_POINTS_COLUMN);
+                fields.remove("sprint");
+            }
+        }
+        fieldPaths = new FieldPaths(IssueFixtures.STORY_POINTS_COLUMN);
+    }
+
+    @Benchmark
+    public double fieldPaths() {
+        double closedStoryPoints = 0;
+        for (Issue issue : issues) {
+            JsonNode fields = issue.getFields();
+            double storyPoints = fieldPaths.getStoryPoints().resolve(fields).asDouble();
+            if (!"Done".equals(FieldPaths.STATUS_CATEGORY_NAME.resolve(fields).asText()))
+                continue;
+            JsonNode sprintId = FieldPaths.SPRINT_ID.resolve(fields);
+            if (sprintId.isMissingNode()) {
+                for (JsonNode closedSprint : FieldPaths.CLOSED_SPRINTS.resolve(fields)) {
+                    if (FieldPaths.ID.resolve(closedSprint).asInt() == IssueFixtures.SPRINT_ID)
+                        closedStoryPoints += storyPoints;
+                }
+            } else if (sprintId.asInt() == IssueFixtures.SPRINT_ID) {
+                closedStoryPoints += storyPoints;
+            }
+        }
+        return closedStoryPoints;
+    }
+
+    @Benchmark
+    public double findValue() {
+        double closedStoryPoints = 0;
+        for (Issue issue : issues) {
+            JsonNode fields = issue.getFields();
+            JsonNode storyPointsNode = fields.findValue(IssueFixtures.STORY_POINTS_COLUMN);
+            double storyPoints = storyPointsNode == null ? 0.0 : storyPointsNode.asDouble();
+            JsonNode statusName = fields.findValue("status").findValue("statusCategory").findValue("name");
+            if (!"Done".equals(statusName.asText()))
+                continue;
+            JsonNode currentSprint = fields.findValue("sprint");
+            if (currentSprint == null || currentSprint.findValue("id") == null) {
+                JsonNode closedSprints = fields.findValue("closedSprints");
+                for (int i = 0; closedSprints != null && i < closedSprints.size(); i++) {
+                    if (closedSprints.get(i).findValue("id").asInt() == IssueFixtures.SPRINT_ID)
+                        closedStoryPoints += storyPoints;
+                }
+            } else if (currentSprint.findValue("id").asInt() == IssueFixtures.SPRINT_ID) {
+                closedStoryPoints += storyPoints;
+            }
+        }
+        return closedStoryPoints;
+    }
+}
@@ -0,0 +1,49 @@
+package org.korecky.jiracli.report;
+
+import org.korecky.jiracli.IssueFixtures;
+import org.korecky.jiracli.dto.Issue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the team of every issue through {@link TeamIndex}, a fifth of the assignees is in no team
+ * and unassigned issues fall back to their components.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TeamResolutionBenchmark {
+
+    @Param({"10000"})
+    int issueCount;
+
+    @Param({"5", "50"})
+    int teamCount;
+
+    private List<Issue> issues;
+    private TeamIndex teamIndex;
+
+    @Setup
+    public void setUp() {
+        issues = new IssueFixtures(42).issues(issueCount, Set.of("assignee", "components"));
+        teamIndex = new TeamIndex(IssueFixtures.teams(teamCount));
+    }
+
+    @Benchmark
+    public void getTeam(Blackhole blackhole) {
+        for (Issue issue : issues) {
+            blackhole.consume(teamIndex.getTeam(issue.getAssignee(), issue.getComponents()));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.korecky.jiracli;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.korecky.jiracli.configuration.Batch;
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.dto.Sprint;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates reports of several sprints in one process.
+ * <p>
+ * All reports share one {@link JiraClient}, so its connections, response cache and the known closed sprints
+ * are reused instead of being built again for every sprint. A failed report or a sprint id which is not found
+ * does not stop the others, the failed sprints are reported at the end. Reports are named by the sprint name and id, sprints of different
+ * boards often have the same name.
+ */
+public class BatchReports {
+    private static final Logger LOGGER = LogManager.getLogger(BatchReports.class);
+
+    private final Batch batch;
+    private final JiraClient jiraClient;
+    private final Reports reports;
+
+    public BatchReports(Configuration configuration, JiraClient jiraClient) {
+        this.batch = configuration.getBatch();
+        this.jiraClient = jiraClient;
+        this.reports = new Reports(configuration, jiraClient);
+    }
+
+    public void generate() throws IOException {
+        ConcurrentLinkedQueue<Integer> failedSprintIds = new ConcurrentLinkedQueue<>();
+        List<Sprint> sprints = selectSprints(failedSprintIds);
+        System.out.println("Generating reports of " + sprints.size() + " sprints");
+
+        AtomicInteger generatedReports = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Sprint sprint : sprints) {
+            tasks.add(() -> {
+                try {
+                    reports.generate(sprint, reportName(sprint));
+                    System.out.println("Report of sprint " + sprint.getName() + " ... Done ("
+                            + generatedReports.incrementAndGet() + "/" + sprints.size() + ")");
+                } catch (Exception e) {
+                    LOGGER.error("Report of sprint {} ({}) failed", sprint.getName(), sprint.getId(), e);
+                    failedSprintIds.add(sprint.getId());
+                }
+                return null;
+            });
+        }
+        Parallel.invokeAll(batch.getParallelism(), tasks);
+
+        if (!failedSprintIds.isEmpty())
+            throw new RuntimeException("Reports of sprints " + failedSprintIds + " failed");
+    }
+
+    private static String reportName(Sprint sprint) {
+        return sprint.getName() + " (" + sprint.getId() + ")";
+    }
+
+    /**
+     * @param failedSprintIds collects the given sprint ids which were not found
+     * @return sprints given by id, or sprints of the board in the selected states
+     */
+    private List<Sprint> selectSprints(Collection<Integer> failedSprintIds) throws IOException {
+        if (batch.getSprintIds() != null && !batch.getSprintIds().isEmpty()) {
+            List<Callable<Sprint>> tasks = new ArrayList<>();
+            for (int sprintId : batch.getSprintIds()) {
+                tasks.add(() -> jiraClient.getSprintDetail(sprintId));
+            }
+            List<Sprint> details = Parallel.invokeAll(batch.getParallelism(), tasks);
+
+            List<Sprint> sprints = new ArrayList<>();
+            for (int i = 0; i < details.size(); i++) {
+                if (details.get(i) != null) {
+                    sprints.add(details.get(i));
+                } else {
+                    LOGGER.error("Sprint {} not found", batch.getSprintIds().get(i));
+                    failedSprintIds.add(batch.getSprintIds().get(i));
+                }
+            }
+            return sprints;
+        }
+        if (batch.getBoardId() != null)
+            return jiraClient.getBoardSprints(batch.getBoardId(), batch.getState());
+        throw new IllegalArgumentException("Batch needs sprint ids or a board id");
+    }
+}
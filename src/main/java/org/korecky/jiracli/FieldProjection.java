@@ -0,0 +1,56 @@
+package org.korecky.jiracli;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Issue fields requested from Jira. An empty set of fields means all fields, which is the Jira default.
+ * No {@code expand} parameter is sent, the reports read plain fields only, so changelogs, rendered fields
+ * and other expansions are never downloaded.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FieldProjection {
+    public static final FieldProjection ALL_FIELDS = new FieldProjection(Set.of());
+
+    @Builder.Default
+    private Set<String> fields = Set.of();
+
+    public boolean isAllFields() {
+        return fields == null || fields.isEmpty();
+    }
+
+    /**
+     * @return copy of this projection requesting also the given fields, all fields stay all fields
+     */
+    public FieldProjection withFields(Collection<String> additionalFields) {
+        if (isAllFields())
+            return this;
+        Set<String> union = new TreeSet<>(fields);
+        union.addAll(additionalFields);
+        return new FieldProjection(union);
+    }
+
+    /**
+     * @return query parameters starting with '&amp;', or empty string when nothing has to be sent
+     */
+    public String toQueryString() {
+        if (isAllFields())
+            return "";
+        // Sorted, so the same projection always produces the same URL
+        return "&fields=" + new TreeSet<>(fields).stream()
+                .map(field -> URLEncoder.encode(field, StandardCharsets.UTF_8))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,257 @@
+package org.korecky.jiracli;
+
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.configuration.Transport;
+import org.korecky.jiracli.dto.*;
+import org.korecky.jiracli.metrics.Metrics;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Non-blocking Jira client on the JDK HTTP client, {@link JiraClient} is its blocking wrapper.
+ * <p>
+ * Requests are sent over HTTP/2 when the server supports it, so many concurrent requests are multiplexed
+ * over a few connections instead of holding one connection each. No thread waits for a response,
+ * for the rate limiter or for a retry, all waits are scheduled. Cache lookups and parsing of the responses run
+ * on the executor of the client. The cache, rate limit, retries and error handling are described
+ * in {@link JiraRequest}.
+ */
+public class JiraAsyncClient implements AutoCloseable {
+    private final int parallelism;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final JiraRequests requests;
+
+    public JiraAsyncClient(Server server) {
+        Transport transport = server.getTransport() != null ? server.getTransport() : new Transport();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.parallelism = Math.max(1, server.getParallelism());
+        // Threads are created as responses arrive, blocking callers of several reports parse their responses
+        // at the same time instead of queueing behind a fixed number of threads
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "jira-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.requestTimeout = Duration.ofMillis(transport.getSocketTimeout());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(transport.getConnectTimeout()))
+                .sslContext(sslContext(transport))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.requests = new JiraRequests(server);
+    }
+
+    /**
+     * Own SSL context, so the TLS session cache can be tuned without touching the JVM default one.
+     */
+    private static SSLContext sslContext(Transport transport) {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, null, null);
+            sslContext.getClientSessionContext().setSessionTimeout(transport.getTlsSessionTimeout() / 1000);
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create TLS context", e);
+        }
+    }
+
+    /**
+     * @return metrics of the requests since the client was created or the metrics were reset
+     */
+    public Metrics getMetrics() {
+        return requests.getMetrics();
+    }
+
+    /**
+     * Starts new metrics, e.g. for the next command of the daemon.
+     */
+    public void resetMetrics() {
+        requests.resetMetrics();
+    }
+
+    public CompletableFuture<Sprint> getSprintDetail(int sprintId) {
+        return getResponse(requests.create(requests.sprintUrl(sprintId), Sprint.class, requests.isClosed(sprintId)))
+                .thenApply(sprint -> {
+                    if (sprint != null)
+                        requests.rememberSprintState(sprint);
+                    return sprint;
+                });
+    }
+
+    public CompletableFuture<Issue> getIssueDetail(String issueKey) {
+        return getResponse(requests.create(requests.issueUrl(issueKey), Issue.class));
+    }
+
+    public CompletableFuture<List<Board>> getAllBoards() {
+        return Pager.toListAsync(this::getBoardsPage);
+    }
+
+    /**
+     * @param state comma separated sprint states (future, active, closed), {@code null} for all sprints
+     */
+    public CompletableFuture<List<Sprint>> getBoardSprints(int boardId, String state) {
+        return Pager.toListAsync(startAt -> getBoardSprintsPage(boardId, state, startAt));
+    }
+
+    /**
+     * Loads the first page to learn the total, then the remaining pages with up to parallelism
+     * of the server requests at the same time.
+     * Issues are returned in server order and an issue that moved between pages while loading is kept only once.
+     */
+    public CompletableFuture<List<Issue>> getSprintIssues(int sprintId, int maxResultsPerPage, FieldProjection projection) {
+        return getSprintIssues(sprintId, maxResultsPerPage, projection.withFields(JiraClient.SPRINT_ISSUE_FIELDS).toQueryString(), true);
+    }
+
+    /**
+     * @param query     additional query parameters starting with '&amp;'
+     * @param cacheable whether the pages may be answered from and stored in the response cache
+     */
+    CompletableFuture<List<Issue>> getSprintIssues(int sprintId, int maxResultsPerPage, String query, boolean cacheable) {
+        return getSprintIssuesPage(sprintId, 0, maxResultsPerPage, query, cacheable).thenCompose(firstPage -> {
+            if (firstPage == null || firstPage.getIssues() == null)
+                return CompletableFuture.completedFuture(new ArrayList<>());
+
+            List<Integer> offsets = JiraRequests.remainingPageOffsets(firstPage);
+            return loadPages(offsets.size(), page -> getSprintIssuesPage(sprintId, offsets.get(page), maxResultsPerPage, query, cacheable))
+                    .thenApply(remainingPages -> JiraRequests.mergePages(firstPage, remainingPages));
+        });
+    }
+
+    CompletableFuture<Pager.Page<Board>> getBoardsPage(int startAt) {
+        return getResponse(requests.create(requests.boardsUrl(startAt), BoardList.class))
+                .thenApply(boardList -> boardList != null ? new Pager.Page<>(boardList.getValues(), boardList.isLast()) : null);
+    }
+
+    /**
+     * @param state comma separated sprint states (future, active, closed), {@code null} for all sprints
+     */
+    CompletableFuture<Pager.Page<Sprint>> getBoardSprintsPage(int boardId, String state, int startAt) {
+        return getResponse(requests.create(requests.boardSprintsUrl(boardId, state, startAt), SprintList.class))
+                .thenApply(sprintList -> {
+                    if (sprintList == null)
+                        return null;
+                    sprintList.getValues().forEach(requests::rememberSprintState);
+                    return new Pager.Page<>(sprintList.getValues(), sprintList.isLast());
+                });
+    }
+
+    /**
+     * @param query     additional query parameters starting with '&amp;'
+     * @param cacheable whether the page may be answered from and stored in the response cache
+     */
+    CompletableFuture<SprintIssues> getSprintIssuesPage(int sprintId, int startAt, int maxResults, String query, boolean cacheable) {
+        URI apiUrl = requests.sprintIssuesUrl(sprintId, startAt, maxResults, query);
+        return getResponse(cacheable
+                ? requests.create(apiUrl, SprintIssues.class, requests.isClosed(sprintId))
+                : requests.createUncached(apiUrl, SprintIssues.class));
+    }
+
+    /**
+     * Loads pages of known offsets with up to parallelism of the server requests at the same time,
+     * every finished page starts the next one.
+     *
+     * @return pages in the order of their numbers
+     */
+    private <T> CompletableFuture<List<T>> loadPages(int pageCount, IntFunction<CompletableFuture<T>> loader) {
+        Object[] pages = new Object[pageCount];
+        AtomicInteger nextPage = new AtomicInteger();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int worker = 0; worker < Math.min(parallelism, pageCount); worker++) {
+            workers.add(loadNextPage(pageCount, loader, pages, nextPage));
+        }
+        return CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    @SuppressWarnings("unchecked")
+                    List<T> result = (List<T>) Arrays.asList(pages);
+                    return result;
+                });
+    }
+
+    private <T> CompletableFuture<Void> loadNextPage(int pageCount, IntFunction<CompletableFuture<T>> loader, Object[] pages, AtomicInteger nextPage) {
+        int page = nextPage.getAndIncrement();
+        if (page >= pageCount)
+            return CompletableFuture.completedFuture(null);
+        return loader.apply(page).thenCompose(loaded -> {
+            pages[page] = loaded;
+            return loadNextPage(pageCount, loader, pages, nextPage);
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Answers from the cache or sends the GET request, see {@link JiraRequest}.
+     *
+     * @return deserialized response, or {@code null} when the resource was not found or the server sent an empty body
+     */
+    private <T> CompletableFuture<T> getResponse(JiraRequest<T> request) {
+        CompletableFuture<T> response = CompletableFuture.supplyAsync(() -> {
+            try {
+                return request.fromCache();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor).thenCompose(cached -> {
+            if (cached)
+                return CompletableFuture.completedFuture(request.result());
+            return send(request);
+        });
+        return response.whenComplete((result, failure) -> request.finish());
+    }
+
+    /**
+     * Sends the request when the rate limiter allows it and again after the backoff of a throttled response.
+     * The response body is read on the executor of the client.
+     */
+    private <T> CompletableFuture<T> send(JiraRequest<T> request) {
+        long wait = requests.getRateLimiter().tryAcquire();
+        if (wait > 0)
+            return later(wait, TimeUnit.NANOSECONDS).thenCompose(ignored -> send(request));
+
+        // Headers are taken for every attempt, validators of an evicted cached response are not sent again
+        HttpRequest.Builder httpRequest = HttpRequest.newBuilder(request.getUri())
+                .timeout(requestTimeout)
+                .GET();
+        request.headers().forEach(httpRequest::header);
+        request.sent();
+        return httpClient.sendAsync(httpRequest.build(), HttpResponse.BodyHandlers.ofInputStream()).thenApplyAsync(response -> {
+            try {
+                return request.received(response.statusCode(), null,
+                        name -> response.headers().firstValue(name).orElse(null), response.body());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor).thenCompose(delay -> {
+            if (delay < 0)
+                return CompletableFuture.completedFuture(request.result());
+            return later(delay, TimeUnit.MILLISECONDS).thenCompose(ignored -> send(request));
+        });
+    }
+
+    private CompletableFuture<Void> later(long delay, TimeUnit unit) {
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, unit, executor));
+    }
+}
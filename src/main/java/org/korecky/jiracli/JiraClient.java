@@ -1,180 +1,310 @@
 package org.korecky.jiracli;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.poi.util.StringUtil;
+import org.korecky.jiracli.catalog.SprintCatalog;
+import org.korecky.jiracli.catalog.SprintNameIndex;
+import org.korecky.jiracli.configuration.Server;
 import org.korecky.jiracli.dto.*;
+import org.korecky.jiracli.http.JiraResponseException;
+import org.korecky.jiracli.metrics.Metrics;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URI;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
-public class JiraClient {
+/**
+ * Blocking Jira client, every request is sent by {@link JiraAsyncClient} and the caller waits for its result.
+ */
+public class JiraClient implements AutoCloseable {
     private static final Logger LOGGER = LogManager.getLogger(JiraClient.class);
+    /**
+     * Fields always needed to fill assignee, components and labels of the issue, see {@link IssueDeserializer}.
+     */
+    static final Set<String> SPRINT_ISSUE_FIELDS = Set.of("assignee", "components", "labels");
 
-    private final String jiraUrl;
-    private final String username;
-    private final String password;
-    private final ObjectMapper objectMapper;
-    private final CloseableHttpClient httpClient;
+    private final int parallelism;
+    private final String accountKey;
+    private final JiraAsyncClient asyncClient;
+    private final SprintCatalog sprintCatalog;
 
 
     public JiraClient(String jiraUrl, String username, String password) {
-        this.jiraUrl = jiraUrl;
-        this.username = username;
-        this.password = password;
-        this.httpClient = HttpClients.createDefault();
+        this(Server.builder()
+                .url(jiraUrl)
+                .username(username)
+                .password(password)
+                .build());
+    }
+
+    public JiraClient(Server server) {
+        this.parallelism = Math.max(1, server.getParallelism());
+        this.accountKey = accountKey(server.getUrl(), server.getUsername());
+        this.asyncClient = new JiraAsyncClient(server);
+        this.sprintCatalog = server.getCatalog() != null && server.getCatalog().isEnabled()
+                ? new SprintCatalog(this, server.getCatalog())
+                : null;
+    }
 
-        objectMapper = new ObjectMapper();
+    /**
+     * @return mapper configured for the Jira REST API payloads
+     */
+    public static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"));
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return hash of the server URL and the user, which keeps local data of different servers and users apart
+     */
+    public String getAccountKey() {
+        return accountKey;
+    }
+
+    static String accountKey(String jiraUrl, String username) {
+        String url = jiraUrl != null ? jiraUrl.replaceAll("/+$", "") : "";
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((url + "\n" + username).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return metrics of the requests since the client was created or the metrics were reset, shared with
+     * the reports created since
+     */
+    public Metrics getMetrics() {
+        return asyncClient.getMetrics();
     }
 
+    /**
+     * Starts new metrics, e.g. for the next command of the daemon.
+     */
+    public void resetMetrics() {
+        asyncClient.resetMetrics();
+    }
+
+    /**
+     * Finds sprints whose name contains all keywords, ignoring case, best matches first.
+     * Answers from the sprint catalogue when it is enabled, otherwise crawls sprints of all boards.
+     * Sprints are streamed page by page and only the matching ones are kept, so the crawl does not hold
+     * all sprints of the server.
+     *
+     * @see SprintNameIndex#search(String)
+     */
     public List<Sprint> findSprintsByName(String keyword) throws IOException {
-        List<Sprint> matchingSprints = new ArrayList<>();
-        List<Board> allBoards = getAllBoards();
+        if (sprintCatalog != null)
+            return sprintCatalog.findSprintsByName(keyword);
 
-        for (Board board : allBoards) {
-            System.out.print("Searching board;" + board.getName() + " ... ");
-            boolean isLast = false;
-            int startAt = 0;
-            while (!isLast) {
-                URI sprintsApiUrl = URI.create(jiraUrl).resolve("/rest/agile/1.0/board/" + board.getId() + "/sprint?startAt=" + startAt);
-                String jsonString = getResponse(sprintsApiUrl);
-                if (StringUtil.isNotBlank(jsonString)) {
-                    SprintList sprintList = objectMapper.readValue(jsonString, SprintList.class);
-
-                    // Filter sprints by name and add them to the result list
-                    List<Sprint> filtered = new ArrayList<>();
-                    for (Sprint sprint : sprintList.getValues()) {
-                        if (sprint.getName().toLowerCase().contains(keyword.toLowerCase())) {
-                            filtered.add(sprint);
-                        }
-                    }
-                    matchingSprints.addAll(filtered);
-
-                    isLast = sprintList.isLast();
-                    startAt += sprintList.getValues().size();
-                } else {
-                    isLast = true;
+        Predicate<Sprint> matches = SprintNameIndex.matcher(keyword);
+        List<Sprint> matchingSprints = new ArrayList<>();
+        if (parallelism == 1) {
+            try (Stream<Board> boards = streamBoards()) {
+                for (Board board : (Iterable<Board>) boards::iterator) {
+                    System.out.print("Searching board;" + board.getName() + " ... ");
+                    matchingSprints.addAll(crawlBoardSprints(board, null, matches));
+                    System.out.println("Done");
                 }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
-            System.out.println("Done");
+            return new SprintNameIndex(matchingSprints).search(keyword);
         }
-        return matchingSprints;
-    }
-
-    private List<Board> getAllBoards() throws IOException {
-        List<Board> allBoards = new ArrayList<>();
-        boolean isLast = false;
-        int startAt = 0;
-        while (!isLast) {
-            URI boardsApiUrl = URI.create(jiraUrl).resolve("/rest/agile/1.0/board?startAt=" + startAt);
-            String jsonString = getResponse(boardsApiUrl);
-            if (StringUtil.isNotBlank(jsonString)) {
-                BoardList boardList = objectMapper.readValue(jsonString, BoardList.class);
-                allBoards.addAll(boardList.getValues());
-                isLast = boardList.isLast();
-                startAt += boardList.getValues().size();
-            } else {
-                isLast = true;
-            }
+
+        // Boards are crawled concurrently, but the results are merged in board order,
+        // so the output does not depend on which board finished first.
+        List<Board> allBoards = getAllBoards();
+        AtomicInteger searchedBoards = new AtomicInteger();
+        List<Callable<List<Sprint>>> tasks = new ArrayList<>();
+        for (Board board : allBoards) {
+            tasks.add(() -> {
+                List<Sprint> boardSprints = crawlBoardSprints(board, null, matches);
+                System.out.println("Searching board;" + board.getName() + " ... Done ("
+                        + searchedBoards.incrementAndGet() + "/" + allBoards.size() + ")");
+                return boardSprints;
+            });
         }
-        return allBoards;
-    }
-
-
-    public Sprint getSprintDetail(int sprintId) throws JsonProcessingException {
-        URI apiUrl = URI.create(jiraUrl).resolve("/rest/agile/1.0/sprint/" + sprintId);
-        String jsonString = getResponse(apiUrl);
-        return objectMapper.readValue(jsonString, Sprint.class);
-    }
-
-    public List<Issue> getSprintIssues(int sprintId, int maxResultsPerPage) throws JsonProcessingException {
-        boolean nextPage = true;
-        List<Issue> issues = new ArrayList<>();
-        int startAt = 0;
-        while (nextPage) {
-            URI apiUrl = URI.create(jiraUrl).resolve("/rest/agile/1.0/sprint/" + sprintId + "/issue?startAt=" + startAt + "&maxResults=" + maxResultsPerPage);
-            String jsonString = getResponse(apiUrl);
-            if (StringUtil.isNotBlank(jsonString)) {
-                SprintIssues sprintIssues = objectMapper.readValue(jsonString, SprintIssues.class);
-                for (Issue issue : sprintIssues.getIssues()) {
-                    Assignee assignee = objectMapper.readValue(String.valueOf(issue.getFields().findValue("assignee")), Assignee.class);
-                    issue.setAssignee(assignee);
-                    List<Component> components = objectMapper.readerForListOf(Component.class).readValue(String.valueOf(issue.getFields().findValue("components")));
-                    issue.setComponents(components);
-                    List<String> labels = objectMapper.readerForListOf(String.class).readValue(String.valueOf(issue.getFields().findValue("labels")));
-                    issue.setLabels(labels);
-                    issues.add(issue);
-                }
-                startAt = issues.size() - 1;
-                if (sprintIssues.getTotal() <= issues.size())
-                    nextPage = false;
-            }
-            else {
-                nextPage = false;
-            }
+        for (List<Sprint> boardSprints : Parallel.invokeAll(parallelism, tasks)) {
+            matchingSprints.addAll(boardSprints);
         }
-        return issues;
+        return new SprintNameIndex(matchingSprints).search(keyword);
+    }
+
+    /**
+     * Loads sprints of the board.
+     *
+     * @param state comma separated sprint states (future, active, closed), {@code null} for all sprints
+     */
+    public List<Sprint> getBoardSprints(int boardId, String state) throws IOException {
+        return join(asyncClient.getBoardSprints(boardId, state));
     }
 
-    public Issue getIssueDetail(String issueKey) throws JsonProcessingException {
-        URI apiUrl = URI.create(jiraUrl).resolve("/rest/api/2/issue/" + issueKey);
-        String jsonString = getResponse(apiUrl);
-        return objectMapper.readValue(jsonString, Issue.class);
+    /**
+     * Loads sprints of a board met while crawling all boards, a board which has none does not stop the crawl.
+     * Kanban boards do not have sprints and are not asked. Jira answers sprints of other boards without sprint
+     * support, or of boards the user may see but not read sprints of, with 400 Bad Request. Such a board is skipped.
+     *
+     * @param state comma separated sprint states (future, active, closed), {@code null} for all sprints
+     */
+    public List<Sprint> crawlBoardSprints(Board board, String state) throws IOException {
+        return crawlBoardSprints(board, state, sprint -> true);
     }
 
-    private String getResponse(URI apiUrl) {
-        StringBuilder responseBodyBuilder = new StringBuilder();
+    /**
+     * @param filter sprints to keep, the others are dropped as their pages arrive
+     */
+    private List<Sprint> crawlBoardSprints(Board board, String state, Predicate<Sprint> filter) throws IOException {
+        if ("kanban".equals(board.getType()))
+            return new ArrayList<>();
+        try (Stream<Sprint> sprints = streamBoardSprints(board.getId(), state)) {
+            return sprints.filter(filter).collect(Collectors.toCollection(ArrayList::new));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (JiraResponseException e) {
+            if (e.getStatusCode() != 400)
+                throw e;
+            LOGGER.warn("Skipping sprints of board {} ({}), Jira answered 400 Bad Request", board.getId(), board.getName());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Lazily loads sprints of the board, pages are downloaded as the stream is consumed.
+     *
+     * @param state comma separated sprint states (future, active, closed), {@code null} for all sprints
+     */
+    public Stream<Sprint> streamBoardSprints(int boardId, String state) {
+        return Pager.stream(startAt -> join(asyncClient.getBoardSprintsPage(boardId, state, startAt)));
+    }
+
+    public List<Board> getAllBoards() throws IOException {
+        return join(asyncClient.getAllBoards());
+    }
+
+    /**
+     * Lazily loads all boards, pages are downloaded as the stream is consumed.
+     */
+    public Stream<Board> streamBoards() {
+        return Pager.stream(startAt -> join(asyncClient.getBoardsPage(startAt)));
+    }
+
+
+    public Sprint getSprintDetail(int sprintId) throws IOException {
+        return join(asyncClient.getSprintDetail(sprintId));
+    }
+
+    public List<Issue> getSprintIssues(int sprintId, int maxResultsPerPage) throws IOException {
+        return getSprintIssues(sprintId, maxResultsPerPage, FieldProjection.ALL_FIELDS);
+    }
+
+    /**
+     * Loads issues of the sprint with only the fields selected by the projection.
+     * Pages after the first one are loaded with up to parallelism of the server requests at the same time.
+     */
+    public List<Issue> getSprintIssues(int sprintId, int maxResultsPerPage, FieldProjection projection) throws IOException {
+        return join(asyncClient.getSprintIssues(sprintId, maxResultsPerPage, projection));
+    }
+
+    /**
+     * Loads issues of the sprint updated in the last given number of minutes.
+     * Relative JQL date is used, so the result does not depend on time zone of the Jira user.
+     * The answer changes with every minute, so it always comes from the server, never from the response cache.
+     */
+    public List<Issue> getSprintIssuesUpdatedSince(int sprintId, int maxResultsPerPage, FieldProjection projection, long minutes) throws IOException {
+        String jql = "updated >= -" + minutes + "m";
+        return join(asyncClient.getSprintIssues(sprintId, maxResultsPerPage, projection.withFields(SPRINT_ISSUE_FIELDS).toQueryString()
+                + "&jql=" + URLEncoder.encode(jql, StandardCharsets.UTF_8), false));
+    }
+
+    /**
+     * Always asks the server, a cached answer could miss issues added to the sprint or keep removed ones.
+     *
+     * @return keys of all issues currently in the sprint, without downloading their fields
+     */
+    public Set<String> getSprintIssueKeys(int sprintId, int maxResultsPerPage) throws IOException {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Issue issue : join(asyncClient.getSprintIssues(sprintId, maxResultsPerPage, "&fields=key", false))) {
+            keys.add(issue.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * Lazily loads issues of the sprint with only the fields selected by the projection, one page at a time.
+     * Unlike {@link #getSprintIssues(int, int, FieldProjection)} the pages are always loaded sequentially.
+     */
+    public Stream<Issue> streamSprintIssues(int sprintId, int maxResultsPerPage, FieldProjection projection) {
+        String query = projection.withFields(SPRINT_ISSUE_FIELDS).toQueryString();
+        return Pager.stream(startAt -> {
+            SprintIssues sprintIssues = join(asyncClient.getSprintIssuesPage(sprintId, startAt, maxResultsPerPage, query, true));
+            if (sprintIssues == null || sprintIssues.getIssues() == null)
+                return null;
+            List<Issue> issues = sprintIssues.getIssues();
+            return new Pager.Page<>(issues, startAt + issues.size() >= sprintIssues.getTotal());
+        });
+    }
+
+    public Issue getIssueDetail(String issueKey) throws IOException {
+        return join(asyncClient.getIssueDetail(issueKey));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sprintCatalog != null)
+            sprintCatalog.close();
+        asyncClient.close();
+    }
+
+    /**
+     * Waits for the response of the asynchronous client.
+     *
+     * @return deserialized response, or {@code null} when the resource was not found or the server sent an empty body
+     * @throws JiraResponseException when the server answered with an error and the request cannot be retried any more
+     */
+    private static <T> T join(CompletableFuture<T> response) throws IOException {
         try {
-            // Create HTTP GET request
-            HttpGet getRequest = new HttpGet(apiUrl);
-            getRequest.setHeader("Accept", "application/json");
-            getRequest.setHeader("Content-Type", "application/json");
-
-            // Set authentication credentials
-            getRequest.setHeader("Authorization", "Basic " + java.util.Base64.getEncoder().encodeToString((username + ":" + password).getBytes()));
-
-
-            try (CloseableHttpResponse response = httpClient.execute(getRequest)) {
-                if (response.getStatusLine().getStatusCode() == 200) {// Read and print the response
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(response.getEntity().getContent()));
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        responseBodyBuilder.append(line);
-                    }
-                } else {
-                    try (BufferedReader errorReader = new BufferedReader(new InputStreamReader(response.getEntity().getContent()))) {
-                        String errorLine;
-                        StringBuilder errorResponseBody = new StringBuilder();
-                        while ((errorLine = errorReader.readLine()) != null) {
-                            errorResponseBody.append(errorLine);
-                        }
-                        LOGGER.warn("HTTP Error: 400 Bad Request. Response body: {}", errorResponseBody.toString());
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to fetch data from " + apiUrl + ". Status: " + response.getStatusLine().getStatusCode() + " " + response.getStatusLine().getReasonPhrase());
-                    }
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Error during HTTP request to " + apiUrl, e);
+            return response.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException)
+                throw uncheckedIOException.getCause();
+            if (cause instanceof IOException ioException)
+                throw ioException;
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (cause instanceof Error error)
+                throw error;
+            throw new IOException(cause);
         }
-        return responseBodyBuilder.toString();
     }
 }
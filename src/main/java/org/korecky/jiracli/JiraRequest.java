@@ -0,0 +1,229 @@
+package org.korecky.jiracli;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.korecky.jiracli.http.CachedResponse;
+import org.korecky.jiracli.http.Endpoint;
+import org.korecky.jiracli.http.JiraResponseException;
+import org.korecky.jiracli.http.ResponseCache;
+import org.korecky.jiracli.http.RetryPolicy;
+import org.korecky.jiracli.jfr.HttpRequestEvent;
+import org.korecky.jiracli.metrics.CountingInputStream;
+import org.korecky.jiracli.metrics.RequestMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One GET request to Jira, from the cache lookup to the deserialized response, independent of the HTTP client
+ * sending it.
+ * <p>
+ * Fresh cached responses are used without asking the server and stale ones are revalidated with their
+ * ETag / Last-Modified. Throttled and overloaded responses are retried with a jittered backoff, the response
+ * body is deserialized straight from the stream. The request is recorded in the metrics and as
+ * a {@link HttpRequestEvent} when a flight recording is running.
+ * <p>
+ * The client calls {@link #fromCache()} and, until {@link #received} returns -1, waits for the rate limiter
+ * and sends the request with {@link #headers()}. {@link #finish()} is called in any case.
+ * <p>
+ * A cached body evicted before it was read is a cache miss, the request is sent again without validators.
+ */
+final class JiraRequest<T> {
+    private static final Logger LOGGER = LogManager.getLogger(JiraRequest.class);
+
+    private final JiraRequests requests;
+    private final URI uri;
+    private final Class<T> valueType;
+    private final boolean immutable;
+    private final boolean cacheable;
+    private final Endpoint endpoint;
+    private final RequestMetrics requestMetrics;
+    private final HttpRequestEvent event = new HttpRequestEvent();
+    private CachedResponse cached;
+    private boolean requested;
+    private int retry;
+    private long sentAt;
+    private T result;
+
+    /**
+     * @param cacheable whether the response cache is used at all
+     */
+    JiraRequest(JiraRequests requests, URI uri, Class<T> valueType, boolean immutable, boolean cacheable) {
+        this.requests = requests;
+        this.uri = uri;
+        this.valueType = valueType;
+        this.immutable = immutable;
+        this.cacheable = cacheable;
+        this.endpoint = Endpoint.of(uri);
+        this.requestMetrics = requests.getMetrics().request(endpoint);
+        event.begin();
+    }
+
+    URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Answers from the cache when it holds a fresh response, or any response of an immutable resource.
+     *
+     * @return whether the {@link #result()} is known and the server is not asked
+     */
+    boolean fromCache() throws IOException {
+        ResponseCache responseCache = responseCache();
+        cached = responseCache != null ? responseCache.get(uri) : null;
+        if (cached == null || !(cached.isFresh() || immutable))
+            return false;
+        if (!cached.isFresh())
+            responseCache.markImmutable(uri);
+        if (!readCached(cached.getBody()))
+            return false;
+        requestMetrics.cacheHit();
+        event.cached = true;
+        return true;
+    }
+
+    /**
+     * Headers of the request, with the validators of a stale cached response.
+     * Called before every time the request is sent.
+     */
+    Map<String, String> headers() {
+        if (!requested) {
+            requests.getRetryPolicy().requested();
+            requested = true;
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", "application/json");
+        headers.put("Content-Type", "application/json");
+        headers.put("Authorization", requests.getAuthorization());
+        if (cached != null) {
+            if (cached.getEtag() != null)
+                headers.put("If-None-Match", cached.getEtag());
+            if (cached.getLastModified() != null)
+                headers.put("If-Modified-Since", cached.getLastModified());
+        }
+        return headers;
+    }
+
+    /**
+     * Marks the request as sent, the latency is measured from here.
+     */
+    void sent() {
+        sentAt = System.nanoTime();
+    }
+
+    /**
+     * Handles the response and closes its body.
+     *
+     * @param reasonPhrase reason phrase of the status line, {@code null} when the protocol has none
+     * @param headers      value of the first header with the given name, or {@code null}
+     * @param body         response body, {@code null} when there is none
+     * @return -1 when the {@link #result()} is known, otherwise milliseconds to wait before sending the request again
+     * @throws JiraResponseException when the server answered with an error and the request cannot be retried any more
+     */
+    long received(int statusCode, String reasonPhrase, Function<String, String> headers, InputStream body) throws IOException {
+        try (InputStream content = body != null ? body : InputStream.nullInputStream()) {
+            requestMetrics.getLatency().recordSince(sentAt);
+            requests.getRateLimiter().update(statusCode, headers);
+            event.status = statusCode;
+            event.retries = retry;
+            String status = statusCode + (reasonPhrase != null ? " " + reasonPhrase : "");
+            if (statusCode == 304 && cached != null) {
+                responseCache().revalidated(uri, immutable);
+                return readCached(cached.getBody()) ? -1 : 0;
+            } else if (statusCode == 200) {
+                return readBody(content, headers) ? -1 : 0;
+            }
+
+            requestMetrics.error();
+            String errorResponseBody = readErrorBody(content);
+            long delay = RetryPolicy.isRetryable(statusCode) ? requests.getRetryPolicy().retryDelay(retry) : -1;
+            if (delay >= 0) {
+                LOGGER.warn("HTTP Error: {} from {}, retry {} in {} ms", status, uri, retry + 1, delay);
+                retry++;
+                return delay;
+            } else if (statusCode == 404) {
+                // Missing sprint or issue, callers handle it as not found
+                LOGGER.warn("HTTP Error: 404 Not Found from {}. Response body: {}", uri, errorResponseBody);
+                result = null;
+                return -1;
+            }
+            // Returning nothing would look like the last page and silently truncate the results
+            throw new JiraResponseException("Failed to fetch data from " + uri + ". Status: " + status
+                    + ". Response body: " + errorResponseBody, statusCode);
+        }
+    }
+
+    /**
+     * @return deserialized response, or {@code null} when the resource was not found or the server sent an empty body
+     */
+    T result() {
+        return result;
+    }
+
+    /**
+     * Records the request in the flight recording.
+     */
+    void finish() {
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint.getTemplate();
+            event.uri = uri.toString();
+            event.commit();
+        }
+    }
+
+    /**
+     * @return whether the {@link #result()} was read, {@code false} when the stored body was evicted before
+     */
+    private boolean readBody(InputStream body, Function<String, String> headers) throws IOException {
+        CountingInputStream content = new CountingInputStream(body, requestMetrics.getBytes());
+        ResponseCache responseCache = responseCache();
+        try {
+            if (responseCache == null) {
+                result = requests.readJson(content, valueType);
+                return true;
+            }
+            Path cachedBody = responseCache.put(uri, content, headers.apply("ETag"), headers.apply("Last-Modified"), immutable);
+            return readCached(cachedBody);
+        } finally {
+            event.bytes = content.getCount();
+        }
+    }
+
+    private ResponseCache responseCache() {
+        return cacheable ? requests.getResponseCache() : null;
+    }
+
+    /**
+     * Reads the {@link #result()} from the cached body.
+     *
+     * @return {@code false} when the body was evicted meanwhile, the cached response is then forgotten
+     */
+    private boolean readCached(Path cachedBody) throws IOException {
+        InputStream body;
+        try {
+            body = Files.newInputStream(cachedBody);
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Cached response of {} was evicted before it was read", uri);
+            cached = null;
+            return false;
+        }
+        result = requests.readJson(body, valueType);
+        return true;
+    }
+
+    private static String readErrorBody(InputStream body) {
+        try {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.korecky.jiracli;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.korecky.jiracli.configuration.RateLimit;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.dto.Issue;
+import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.dto.SprintIssues;
+import org.korecky.jiracli.http.RateLimiter;
+import org.korecky.jiracli.http.ResponseCache;
+import org.korecky.jiracli.http.RetryPolicy;
+import org.korecky.jiracli.jfr.ParseEvent;
+import org.korecky.jiracli.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything the requests of one {@link JiraAsyncClient} share: URLs of the Jira resources, credentials,
+ * rate limit, retries, response cache and metrics.
+ */
+final class JiraRequests {
+    private final String jiraUrl;
+    private final String authorization;
+    private final ObjectMapper objectMapper;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final ResponseCache responseCache;
+    private volatile Metrics metrics = new Metrics();
+    /**
+     * Ids of sprints known to be closed, their responses never change and are cached without expiration.
+     */
+    private final Set<Integer> closedSprintIds = ConcurrentHashMap.newKeySet();
+
+    JiraRequests(Server server) {
+        RateLimit rateLimit = server.getRateLimit() != null ? server.getRateLimit() : new RateLimit();
+        this.jiraUrl = server.getUrl();
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString((server.getUsername() + ":" + server.getPassword()).getBytes(StandardCharsets.UTF_8));
+        this.objectMapper = JiraClient.createObjectMapper();
+        this.rateLimiter = new RateLimiter(rateLimit);
+        this.retryPolicy = new RetryPolicy(rateLimit);
+        this.responseCache = server.getCache() != null && server.getCache().isEnabled()
+                ? new ResponseCache(server.getCache(), server.getUsername())
+                : null;
+    }
+
+    <T> JiraRequest<T> create(URI uri, Class<T> valueType) {
+        return create(uri, valueType, false);
+    }
+
+    /**
+     * @param immutable response can never change, so a cached copy is used regardless of its age
+     */
+    <T> JiraRequest<T> create(URI uri, Class<T> valueType, boolean immutable) {
+        return new JiraRequest<>(this, uri, valueType, immutable, true);
+    }
+
+    /**
+     * Request always sent to the server, for answers which change too often to be cached, e.g. relative JQL dates.
+     * Its response is not stored in the cache either.
+     */
+    <T> JiraRequest<T> createUncached(URI uri, Class<T> valueType) {
+        return new JiraRequest<>(this, uri, valueType, false, false);
+    }
+
+    URI boardsUrl(int startAt) {
+        return URI.create(jiraUrl).resolve("/rest/agile/1.0/board?startAt=" + startAt);
+    }
+
+    /**
+     * @param state comma separated sprint states (future, active, closed), {@code null} for all sprints
+     */
+    URI boardSprintsUrl(int boardId, String state, int startAt) {
+        String stateFilter = state != null ? "&state=" + URLEncoder.encode(state, StandardCharsets.UTF_8) : "";
+        return URI.create(jiraUrl).resolve("/rest/agile/1.0/board/" + boardId + "/sprint?startAt=" + startAt + stateFilter);
+    }
+
+    URI sprintUrl(int sprintId) {
+        return URI.create(jiraUrl).resolve("/rest/agile/1.0/sprint/" + sprintId);
+    }
+
+    /**
+     * @param query additional query parameters starting with '&amp;'
+     */
+    URI sprintIssuesUrl(int sprintId, int startAt, int maxResults, String query) {
+        return URI.create(jiraUrl).resolve("/rest/agile/1.0/sprint/" + sprintId + "/issue?startAt=" + startAt + "&maxResults=" + maxResults + query);
+    }
+
+    URI issueUrl(String issueKey) {
+        return URI.create(jiraUrl).resolve("/rest/api/2/issue/" + issueKey);
+    }
+
+    boolean isClosed(int sprintId) {
+        return closedSprintIds.contains(sprintId);
+    }
+
+    /**
+     * Closed sprint does not change any more, so its detail and issues can be cached forever.
+     */
+    void rememberSprintState(Sprint sprint) {
+        if (!"closed".equals(sprint.getState()) || !closedSprintIds.add(sprint.getId()))
+            return;
+        if (responseCache != null)
+            responseCache.markImmutable(sprintUrl(sprint.getId()));
+    }
+
+    /**
+     * @return offsets of the pages following the first one, based on the real size of the first page
+     * as Jira may return less than requested
+     */
+    static List<Integer> remainingPageOffsets(SprintIssues firstPage) {
+        List<Integer> offsets = new ArrayList<>();
+        int pageSize = firstPage.getIssues().size();
+        for (int startAt = pageSize; pageSize > 0 && startAt < firstPage.getTotal(); startAt += pageSize) {
+            offsets.add(startAt);
+        }
+        return offsets;
+    }
+
+    /**
+     * Issues of all pages in server order, an issue that moved between pages while loading is kept only once.
+     */
+    static List<Issue> mergePages(SprintIssues firstPage, List<SprintIssues> remainingPages) {
+        Map<Integer, Issue> issues = new LinkedHashMap<>();
+        for (Issue issue : firstPage.getIssues()) {
+            issues.putIfAbsent(issue.getId(), issue);
+        }
+        for (SprintIssues page : remainingPages) {
+            if (page == null || page.getIssues() == null)
+                continue;
+            for (Issue issue : page.getIssues()) {
+                issues.putIfAbsent(issue.getId(), issue);
+            }
+        }
+        return new ArrayList<>(issues.values());
+    }
+
+    /**
+     * Reads JSON from the stream and closes it.
+     *
+     * @return deserialized value, or {@code null} for an empty stream
+     */
+    <T> T readJson(InputStream content, Class<T> valueType) throws IOException {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        Metrics parseMetrics = metrics;
+        long start = System.nanoTime();
+        try (content; JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            if (parser.nextToken() == null)
+                return null;
+            return objectMapper.readValue(parser, valueType);
+        } finally {
+            parseMetrics.parse(valueType).recordSince(start);
+            if (event.shouldCommit()) {
+                event.type = valueType.getSimpleName();
+                event.commit();
+            }
+        }
+    }
+
+    String getAuthorization() {
+        return authorization;
+    }
+
+    RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts new metrics, requests already created are recorded in the previous ones.
+     */
+    void resetMetrics() {
+        metrics = new Metrics();
+    }
+}
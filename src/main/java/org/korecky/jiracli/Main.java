@@ -2,23 +2,153 @@ package org.korecky.jiracli;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import jdk.jfr.Recording;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.korecky.jiracli.configuration.Batch;
 import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.Trend;
+import org.korecky.jiracli.daemon.Daemon;
+import org.korecky.jiracli.daemon.DaemonClient;
+import org.korecky.jiracli.daemon.DaemonRequest;
 import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.jfr.FlightRecording;
+import org.korecky.jiracli.sink.ReportFormat;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Main {
-    public static void main(String[] args) throws IOException {
+    /**
+     * Exit code of an invalid command line.
+     */
+    private static final int USAGE_ERROR = 2;
+
+    public static void main(String[] args) throws IOException, ParseException {
+        Options options = createOptions();
+        CommandLine commandLine;
+        try {
+            commandLine = parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            new HelpFormatter().printHelp("jira-cli", options);
+            System.exit(USAGE_ERROR);
+            return;
+        }
+        if (commandLine.hasOption("connect") || commandLine.hasOption("stop")) {
+            // Thin client, the configuration and the Jira client are loaded only when no daemon is running
+            Path socket = socket(commandLine);
+            try (DaemonClient client = DaemonClient.connect(socket)) {
+                if (client != null)
+                    System.exit(client.execute(new DaemonRequest(List.of(args), Path.of("").toAbsolutePath()), System.out));
+            }
+            if (commandLine.hasOption("stop")) {
+                System.out.println("No daemon is running on " + socket);
+                return;
+            }
+            System.err.println("No daemon is running on " + socket + ", running in this process");
+        }
         Configuration configuration = loadConfig();
 
+        Path recordingFile = commandLine.hasOption("jfr") ? Path.of(commandLine.getOptionValue("jfr")) : null;
+        Recording recording = recordingFile != null ? FlightRecording.start(recordingFile) : null;
+        try (JiraClient jiraClient = new JiraClient(configuration.getServer())) {
+            if (commandLine.hasOption("daemon"))
+                runDaemon(socket(commandLine), options, jiraClient);
+            else
+                execute(configuration, commandLine, jiraClient, Path.of(""));
+        } finally {
+            if (recording != null) {
+                // Stopping writes the recording to its destination
+                recording.stop();
+                recording.close();
+                System.out.println("Flight recording written to " + recordingFile.toAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Runs one command line, in this process or in the daemon.
+     *
+     * @param workingFolder folder of the invocation, relative paths of the options and of the configuration
+     *                      are resolved against it
+     */
+    private static void execute(Configuration configuration, CommandLine commandLine, JiraClient jiraClient, Path workingFolder) throws IOException, ParseException {
+        resolveFolders(configuration, workingFolder);
+        applyBatchOptions(configuration, commandLine);
+        applyTrendOptions(configuration, commandLine);
+        if (commandLine.hasOption("format"))
+            configuration.getOutput().setFormat(ReportFormat.of(commandLine.getOptionValue("format")));
+        try {
+            run(configuration, jiraClient);
+        } finally {
+            if (commandLine.hasOption("metrics")) {
+                Path metricsFile = workingFolder.resolve(commandLine.getOptionValue("metrics"));
+                jiraClient.getMetrics().write(metricsFile);
+                System.out.println("Metrics written to " + metricsFile.toAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Serves thin clients started with {@code --connect} until one of them sends {@code --stop}.
+     * Every request starts from the configuration file, options of a request are not kept for the next one.
+     * Relative folders of a request are resolved against the working folder of its client, not of the daemon.
+     * The server section is read only when the daemon starts, its relative paths are resolved against the working
+     * folder of the daemon.
+     */
+    private static void runDaemon(Path socket, Options options, JiraClient jiraClient) throws IOException {
+        try (Daemon daemon = new Daemon(socket)) {
+            System.out.println("Daemon listening on " + socket.toAbsolutePath());
+            daemon.run(request -> {
+                CommandLine commandLine;
+                try {
+                    commandLine = parse(options, request.args().toArray(new String[0]));
+                } catch (ParseException e) {
+                    System.out.println(e.getMessage());
+                    new HelpFormatter().printHelp("jira-cli", options);
+                    return USAGE_ERROR;
+                }
+                if (commandLine.hasOption("stop")) {
+                    daemon.stop();
+                    System.out.println("Daemon stopped");
+                    return 0;
+                }
+                if (commandLine.hasOption("daemon") || commandLine.hasOption("jfr")) {
+                    // A recording is global to the JVM, start the daemon itself with --jfr to record it
+                    System.out.println("--daemon and --jfr cannot be sent to a running daemon");
+                    return 1;
+                }
+                // --metrics of a request covers that request only
+                jiraClient.resetMetrics();
+                execute(loadConfig(), commandLine, jiraClient, request.workingFolder());
+                return 0;
+            });
+        }
+    }
+
+    private static Path socket(CommandLine commandLine) {
+        return commandLine.hasOption("socket") ? Path.of(commandLine.getOptionValue("socket")) : DaemonClient.defaultSocket();
+    }
+
+    private static void run(Configuration configuration, JiraClient jiraClient) throws IOException {
+        if (configuration.getBatch() != null) {
+            new BatchReports(configuration, jiraClient).generate();
+            return;
+        }
+        if (configuration.getTrend() != null) {
+            new VelocityTrend(configuration, jiraClient).generate();
+            return;
+        }
+
         // Fined all sprints containing NEO
-        JiraClient jiraClient = new JiraClient(
-                configuration.getServer().getUrl(),
-                configuration.getServer().getUsername(),
-                configuration.getServer().getPassword()
-        );
         String keywordToSearch = "NEO";
         System.out.println("Searching for sprints with keyword: " + keywordToSearch);
         List<Sprint> foundSprints = jiraClient.findSprintsByName(keywordToSearch);
@@ -34,15 +164,164 @@ public class Main {
         }
 
 
-        Reports reports = new Reports(configuration);
+        Reports reports = new Reports(configuration, jiraClient);
         reports.generate();
     }
 
+    /**
+     * Parses the command line and checks the values of its options, so that a typo is reported as a usage error
+     * instead of failing later or being ignored.
+     */
+    static CommandLine parse(Options options, String[] args) throws ParseException {
+        CommandLine commandLine = new DefaultParser().parse(options, args);
+        if (commandLine.hasOption("sprints") && commandLine.hasOption("board"))
+            throw new ParseException("--sprints and --board cannot be combined");
+        if (commandLine.hasOption("trend") && (commandLine.hasOption("sprints") || commandLine.hasOption("board")))
+            throw new ParseException("--trend cannot be combined with --sprints or --board");
+        if (commandLine.hasOption("state") && !commandLine.hasOption("board"))
+            throw new ParseException("--state needs --board");
+        if (commandLine.hasOption("last") && !commandLine.hasOption("trend"))
+            throw new ParseException("--last needs --trend");
+        if (commandLine.hasOption("parallelism") && !commandLine.hasOption("sprints")
+                && !commandLine.hasOption("board") && !commandLine.hasOption("trend"))
+            throw new ParseException("--parallelism needs --sprints, --board or --trend");
+
+        if (commandLine.hasOption("sprints"))
+            sprintIds(commandLine);
+        for (String option : List.of("board", "trend", "parallelism", "last")) {
+            if (commandLine.hasOption(option))
+                number(commandLine, option);
+        }
+        if (commandLine.hasOption("format")) {
+            try {
+                ReportFormat.of(commandLine.getOptionValue("format"));
+            } catch (IllegalArgumentException e) {
+                throw new ParseException("Unknown --format " + commandLine.getOptionValue("format") + ", use xlsx, csv or jsonl");
+            }
+        }
+        return commandLine;
+    }
+
+    private static int number(CommandLine commandLine, String option) throws ParseException {
+        String value = commandLine.getOptionValue(option).trim();
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0)
+                return number;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new ParseException("--" + option + " must be a positive number: " + value);
+    }
+
+    private static List<Integer> sprintIds(CommandLine commandLine) throws ParseException {
+        List<Integer> sprintIds = new ArrayList<>();
+        for (String sprintId : commandLine.getOptionValue("sprints").split(",")) {
+            try {
+                sprintIds.add(Integer.parseInt(sprintId.trim()));
+            } catch (NumberFormatException e) {
+                throw new ParseException("--sprints must be comma separated sprint ids: " + commandLine.getOptionValue("sprints"));
+            }
+        }
+        return sprintIds;
+    }
+
+    static Options createOptions() {
+        Options options = new Options();
+        options.addOption(Option.builder("s").longOpt("sprints").hasArg().argName("ids")
+                .desc("comma separated sprint ids, generates their reports in one run").build());
+        options.addOption(Option.builder("b").longOpt("board").hasArg().argName("id")
+                .desc("board whose sprints are reported in one run").build());
+        options.addOption(Option.builder().longOpt("state").hasArg().argName("states")
+                .desc("comma separated states of the board sprints, active by default").build());
+        options.addOption(Option.builder("p").longOpt("parallelism").hasArg().argName("n")
+                .desc("number of reports generated at the same time").build());
+        options.addOption(Option.builder("t").longOpt("trend").hasArg().argName("boardId")
+                .desc("velocity trend of the last closed sprints of the board").build());
+        options.addOption(Option.builder().longOpt("last").hasArg().argName("n")
+                .desc("number of closed sprints in the trend, 6 by default").build());
+        options.addOption(Option.builder("f").longOpt("format").hasArg().argName("format")
+                .desc("report format: xlsx (default), csv or jsonl").build());
+        options.addOption(Option.builder().longOpt("metrics").hasArg().argName("file")
+                .desc("writes request, parse and report stage metrics of the run as JSON").build());
+        options.addOption(Option.builder().longOpt("jfr").hasArg().argName("file")
+                .desc("records the run with Java Flight Recorder to the file").build());
+        options.addOption(Option.builder().longOpt("daemon")
+                .desc("keeps running with a warm Jira client and serves commands sent with --connect").build());
+        options.addOption(Option.builder().longOpt("connect")
+                .desc("sends the command to the running daemon, runs it in this process when there is none").build());
+        options.addOption(Option.builder().longOpt("stop")
+                .desc("stops the running daemon").build());
+        options.addOption(Option.builder().longOpt("socket").hasArg().argName("file")
+                .desc("Unix domain socket of the daemon, ~/.jira-cli/daemon.sock by default").build());
+        return options;
+    }
+
+    /**
+     * Command line options override the batch section of the configuration. Sprint ids of the command line
+     * replace the board of the configuration and the other way round. A configured trend is not generated.
+     */
+    static void applyBatchOptions(Configuration configuration, CommandLine commandLine) throws ParseException {
+        if (!commandLine.hasOption("sprints") && !commandLine.hasOption("board"))
+            return;
+        Batch batch = configuration.getBatch() != null ? configuration.getBatch() : new Batch();
+        if (commandLine.hasOption("sprints")) {
+            batch.setSprintIds(sprintIds(commandLine));
+            batch.setBoardId(null);
+        }
+        if (commandLine.hasOption("board")) {
+            batch.setBoardId(number(commandLine, "board"));
+            batch.setSprintIds(null);
+        }
+        if (commandLine.hasOption("state"))
+            batch.setState(commandLine.getOptionValue("state"));
+        if (commandLine.hasOption("parallelism"))
+            batch.setParallelism(number(commandLine, "parallelism"));
+        configuration.setBatch(batch);
+        configuration.setTrend(null);
+    }
+
+    /**
+     * Command line options override the trend section of the configuration. A configured batch is not generated.
+     */
+    static void applyTrendOptions(Configuration configuration, CommandLine commandLine) throws ParseException {
+        if (!commandLine.hasOption("trend"))
+            return;
+        Trend trend = configuration.getTrend() != null ? configuration.getTrend() : new Trend();
+        trend.setBoardId(number(commandLine, "trend"));
+        if (commandLine.hasOption("last"))
+            trend.setSprintCount(number(commandLine, "last"));
+        if (commandLine.hasOption("parallelism"))
+            trend.setParallelism(number(commandLine, "parallelism"));
+        configuration.setTrend(trend);
+        configuration.setBatch(null);
+    }
+
+    /**
+     * Resolves relative output, snapshot and temporary folders of the configuration against the working folder.
+     */
+    static void resolveFolders(Configuration configuration, Path workingFolder) {
+        configuration.setOutputFolder(resolve(workingFolder, configuration.getOutputFolder()));
+        configuration.setSnapshotFolder(resolve(workingFolder, configuration.getSnapshotFolder()));
+        if (configuration.getOutput() != null)
+            configuration.getOutput().setTempFolder(resolve(workingFolder, configuration.getOutput().getTempFolder()));
+    }
+
+    private static String resolve(Path workingFolder, String folder) {
+        return folder != null ? workingFolder.resolve(folder).toString() : null;
+    }
+
     private static Configuration loadConfig() throws IOException {
         String homeFolder = System.getProperty("user.home");
         String configFilePath = homeFolder + File.separator + ".jira-cli" + File.separator + "config.yml";
+        return readConfig(new File(configFilePath));
+    }
 
+    /**
+     * Unknown settings are rejected, so a misspelled or removed setting is not silently ignored.
+     */
+    static Configuration readConfig(File configFile) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper(new YAMLFactory());
-        return objectMapper.readValue(new File(configFilePath), Configuration.class);
+        return objectMapper.readValue(configFile, Configuration.class);
     }
 }
\ No newline at end of file
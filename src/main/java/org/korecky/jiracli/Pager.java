@@ -0,0 +1,124 @@
+package org.korecky.jiracli;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a paged Jira resource, loading the next page only when the items of the previous one were consumed.
+ * <p>
+ * At most one page is held in memory and a stream which short-circuits, e.g. with {@code limit} or
+ * {@code anyMatch}, does not download the remaining pages. The offset of the next page is the number of items
+ * received so far, because Jira may return fewer items than requested. {@link #toListAsync(AsyncPageLoader)}
+ * walks the resource the same way without blocking.
+ */
+public final class Pager<T> extends Spliterators.AbstractSpliterator<T> {
+    private final PageLoader<T> loader;
+    private List<T> page = List.of();
+    private int position;
+    private int startAt;
+    private boolean last;
+
+    private Pager(PageLoader<T> loader) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.loader = loader;
+    }
+
+    /**
+     * Loads one page of the resource.
+     */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        /**
+         * @param startAt index of the first item of the page
+         * @return the page, or {@code null} when there are no more items
+         */
+        Page<T> load(int startAt) throws IOException;
+    }
+
+    /**
+     * Loads one page of the resource without blocking.
+     */
+    @FunctionalInterface
+    public interface AsyncPageLoader<T> {
+        /**
+         * @param startAt index of the first item of the page
+         * @return the page, or {@code null} when there are no more items
+         */
+        CompletableFuture<Page<T>> load(int startAt);
+    }
+
+    /**
+     * Items of one page and whether it is the last one.
+     */
+    public record Page<T>(List<T> items, boolean last) {
+    }
+
+    /**
+     * @return lazy stream of all items, an {@link IOException} of a page is thrown as {@link UncheckedIOException}
+     */
+    public static <T> Stream<T> stream(PageLoader<T> loader) {
+        return StreamSupport.stream(new Pager<>(loader), false);
+    }
+
+    /**
+     * @return all items of the resource, the next page is requested when the previous one arrived
+     */
+    public static <T> CompletableFuture<List<T>> toListAsync(AsyncPageLoader<T> loader) {
+        return collect(loader, 0, new ArrayList<>());
+    }
+
+    private static <T> CompletableFuture<List<T>> collect(AsyncPageLoader<T> loader, int startAt, List<T> items) {
+        return loader.load(startAt).thenCompose(page -> {
+            if (isEnd(page))
+                return CompletableFuture.completedFuture(items);
+            items.addAll(page.items());
+            if (page.last())
+                return CompletableFuture.completedFuture(items);
+            return collect(loader, startAt + page.items().size(), items);
+        });
+    }
+
+    /**
+     * An empty page would ask for the same offset again forever, so it ends the paging like a missing one.
+     */
+    private static boolean isEnd(Page<?> page) {
+        return page == null || page.items() == null || page.items().isEmpty();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (position == page.size()) {
+            if (last)
+                return false;
+            loadNextPage();
+        }
+        action.accept(page.get(position++));
+        return true;
+    }
+
+    private void loadNextPage() {
+        Page<T> next;
+        try {
+            next = loader.load(startAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (isEnd(next)) {
+            page = List.of();
+            last = true;
+        } else {
+            page = next.items();
+            last = next.last();
+            startAt += page.size();
+        }
+        position = 0;
+    }
+}
@@ -0,0 +1,60 @@
+package org.korecky.jiracli;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs independent tasks on a bounded number of threads.
+ */
+public final class Parallel {
+
+    private Parallel() {
+    }
+
+    /**
+     * Runs the tasks on at most {@code parallelism} threads and returns their results in the order of the tasks.
+     * The first failure, in the order the tasks finish, interrupts the running tasks, drops the waiting ones
+     * and is rethrown to the caller.
+     */
+    public static <T> List<T> invokeAll(int parallelism, List<Callable<T>> tasks) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            // Results are taken as the tasks finish, so a failure is seen before the tasks submitted earlier end
+            CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+            Map<Future<T>, Integer> taskIndexes = new HashMap<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                taskIndexes.put(completionService.submit(tasks.get(i)), i);
+            }
+            List<T> results = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+            for (int finished = 0; finished < tasks.size(); finished++) {
+                Future<T> future = completionService.take();
+                results.set(taskIndexes.get(future), future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for parallel tasks");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException)
+                throw ioException;
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new RuntimeException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
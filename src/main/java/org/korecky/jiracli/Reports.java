@@ -1,258 +1,285 @@
 package org.korecky.jiracli;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.korecky.jiracli.configuration.Configuration;
-import org.korecky.jiracli.configuration.Team;
-import org.korecky.jiracli.dto.Component;
+import org.korecky.jiracli.configuration.Output;
 import org.korecky.jiracli.dto.Issue;
 import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.jfr.ReportStageEvent;
+import org.korecky.jiracli.metrics.Metrics;
+import org.korecky.jiracli.report.FieldPaths;
+import org.korecky.jiracli.report.IssueFacts;
+import org.korecky.jiracli.report.SprintVelocity;
+import org.korecky.jiracli.report.TeamIndex;
 import org.korecky.jiracli.report.Work;
+import org.korecky.jiracli.sink.ReportSink;
+import org.korecky.jiracli.sink.SheetWriter;
+import org.korecky.jiracli.sync.IncrementalSync;
 
 import java.io.*;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.*;
 
 public class Reports {
     public static final String EMPTY_EPIC = "Others";
+    /**
+     * Issue fields read by the epics spreadsheets, story points column is added from the configuration.
+     */
+    private static final Set<String> EPICS_FIELDS = Set.of("epic", "status", "sprint", "closedSprints");
+    /**
+     * Issue fields read by the velocity of teams spreadsheet, story points column is added from the configuration.
+     */
+    private static final Set<String> VELOCITY_OF_TEAMS_FIELDS = Set.of("assignee", "components", "status", "sprint", "closedSprints");
     private final Configuration configuration;
     private final JiraClient jiraClient;
+    private final IncrementalSync snapshots;
+    private final TeamIndex teamIndex;
+    private final FieldPaths fieldPaths;
+    private final Metrics metrics;
 
-    public Reports(Configuration configuration) {
+    public Reports(Configuration configuration, JiraClient jiraClient) {
         this.configuration = configuration;
-        this.jiraClient = new JiraClient(
-                configuration.getServer().getUrl(),
-                configuration.getServer().getUsername(),
-                configuration.getServer().getPassword());
+        this.jiraClient = jiraClient;
+        this.snapshots = new IncrementalSync(jiraClient, configuration.getSnapshotFolder());
+        this.teamIndex = new TeamIndex(configuration.getTeams());
+        this.fieldPaths = new FieldPaths(configuration.getStoryPointsColumn());
+        this.metrics = jiraClient.getMetrics();
     }
 
+    /**
+     * Generates the report of the configured sprint.
+     */
     public void generate() throws IOException {
-        Sprint sprint = loadSprintDetail();
-        List<Issue> sprintIssues = loadInformationFromJIRA();
-
-        XSSFWorkbook workbook = new XSSFWorkbook();
-        createSpreadsheetEpics(workbook, sprint, sprintIssues);
-        createSpreadsheetVelocityOfTeams(workbook, sprint, sprintIssues);
-
-        Path excelFilePath = Path.of(configuration.getOutputFolder(), sprint.getName() + ".xlsx");
-        try (FileOutputStream out = new FileOutputStream(excelFilePath.toAbsolutePath().toString())) {
-            workbook.write(out);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        generate(loadSprintDetail());
     }
 
-    private List<Issue> loadInformationFromJIRA() throws JsonProcessingException {
-        return jiraClient.getSprintIssues(configuration.getSprintId(), 100);
+    /**
+     * Generates the report of the sprint, named by the sprint. Reports of different sprints can be generated concurrently.
+     */
+    public void generate(Sprint sprint) throws IOException {
+        generate(sprint, sprint.getName());
     }
 
-    private Sprint loadSprintDetail() throws JsonProcessingException {
-        return jiraClient.getSprintDetail(configuration.getSprintId());
+    /**
+     * @param reportName file name of the report without the extension
+     */
+    public void generate(Sprint sprint, String reportName) throws IOException {
+        List<Issue> sprintIssues = loadInformationFromJIRA(sprint);
+        IssueFacts facts = stage("extractFacts", sprint, () -> extractFacts(sprint, sprintIssues));
+
+        // Rows are streamed to the sink, closing it deletes its temporary files, also when the report failed
+        try (ReportSink sink = createSink(reportName)) {
+            stage("sheet.epics", sprint, () -> {
+                createSpreadsheetEpics(sink, facts);
+                return null;
+            });
+            stage("sheet.velocityOfTeams", sprint, () -> {
+                createSpreadsheetVelocityOfTeams(sink, sprint, facts);
+                return null;
+            });
+
+            stage("report.write", sprint, () -> {
+                sink.commit();
+                return null;
+            });
+        }
     }
 
-    private void createSpreadsheetEpics(XSSFWorkbook workbook, Sprint sprint, List<Issue> sprintIssues) {
-        Double plannedStoryPointsSum = 0.0;
-        Double deliveredStoryPointsSum = 0.0;
-        Map<String, Double> epicsPlanned = new HashMap<>();
-        Map<String, Double> epicsDelivered = new HashMap<>();
-        Map<String, List<String>> issues = new HashMap<>();
-        Map<String, String> epicLinks = new HashMap<>();
-        for (Issue issue : sprintIssues) {
-            String epicName = getEpicName(issue);
-            String epicLink = getEpicLink(issue);
-            Double storyPoints = getStoryPoints(issue);
-            String issueLink = getIssueLink(issue);
+    /**
+     * Loads issues of the sprint and sums its velocity, the same way as the velocity sheet of the sprint report.
+     * Issues of a closed sprint are downloaded only once and kept in the snapshot folder.
+     */
+    public SprintVelocity loadVelocity(Sprint sprint) throws IOException {
+        List<Issue> sprintIssues = "closed".equals(sprint.getState())
+                ? stage("loadIssues", sprint, () -> snapshots.getClosedSprintIssues(sprint.getId(), 100, requiredFields()))
+                : loadInformationFromJIRA(sprint);
+        return SprintVelocity.of(sprint, extractFacts(sprint, sprintIssues));
+    }
 
-            epicLinks.put(epicName,epicLink);
+    /**
+     * @param name file name of the report without the extension
+     * @return empty report in the output folder, in the configured format
+     */
+    ReportSink createSink(String name) throws IOException {
+        Output output = configuration.getOutput();
+        return output.getFormat().open(Path.of(configuration.getOutputFolder()), name, output);
+    }
 
-            List<String> existingIssues = new ArrayList<>();
-            if (issues.containsKey(epicName))
-                existingIssues = issues.get(epicName);
-            existingIssues.add(issueLink);
-            issues.put(epicName,existingIssues);
+    private List<Issue> loadInformationFromJIRA(Sprint sprint) throws IOException {
+        return stage("loadIssues", sprint, () -> {
+            if (configuration.isIncrementalSync())
+                return snapshots.getSprintIssues(sprint.getId(), 100, requiredFields());
+            return jiraClient.getSprintIssues(sprint.getId(), 100, requiredFields());
+        });
+    }
 
-            if (storyPoints > 0) {
-                plannedStoryPointsSum += storyPoints;
-                boolean isClosedInTheSprint = isClosedInTheSprint(issue, sprint);
-                if (isClosedInTheSprint) {
-                    deliveredStoryPointsSum += storyPoints;
-                    if (epicsDelivered.containsKey(epicName)) {
-                        Double oldStoryPoints = epicsDelivered.get(epicName);
-                        epicsDelivered.put(epicName, oldStoryPoints + storyPoints);
-                    } else
-                        epicsDelivered.put(epicName, storyPoints);
-                } else {
-                    if (epicsPlanned.containsKey(epicName)) {
-                        Double oldStoryPoints = epicsPlanned.get(epicName);
-                        epicsPlanned.put(epicName, oldStoryPoints + storyPoints);
-                    } else
-                        epicsPlanned.put(epicName, storyPoints);
-                }
+    /**
+     * Runs one stage of the sprint report, its duration goes to the metrics and to a {@link ReportStageEvent}.
+     */
+    private <T> T stage(String name, Sprint sprint, Stage<T> stage) throws IOException {
+        ReportStageEvent event = new ReportStageEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return stage.run();
+        } finally {
+            metrics.stage(name).recordSince(start);
+            if (event.shouldCommit()) {
+                event.stage = name;
+                event.sprint = sprint.getName();
+                event.commit();
             }
         }
+    }
 
-        XSSFSheet spreadsheetEpicsPlanned = workbook.createSheet(" Epics planned");
-        XSSFRow row = spreadsheetEpicsPlanned.createRow(0);
-        row.createCell(0).setCellValue("Epic name");
-        row.createCell(1).setCellValue("Story Points");
-        row.createCell(2).setCellValue("Percentage");
-
-        int rowIndex = 1;
-        for (String epicName : epicsPlanned.keySet()) {
-            row = spreadsheetEpicsPlanned.createRow(rowIndex);
-            row.createCell(0).setCellValue(epicName);
-            row.createCell(1).setCellValue(epicsPlanned.get(epicName));
-            row.createCell(2).setCellValue(epicsPlanned.get(epicName) / plannedStoryPointsSum);
-            rowIndex++;
-        }
+    @FunctionalInterface
+    private interface Stage<T> {
+        T run() throws IOException;
+    }
 
-        XSSFSheet spreadsheetEpicsDelivered = workbook.createSheet(" Epics delivered");
-        row = spreadsheetEpicsDelivered.createRow(0);
-        row.createCell(0).setCellValue("Epic name");
-        row.createCell(1).setCellValue("Story Points");
-        row.createCell(2).setCellValue("Percentage");
-
-        rowIndex = 1;
-        for (String epicName : epicsPlanned.keySet()) {
-            row = spreadsheetEpicsDelivered.createRow(rowIndex);
-            row.createCell(0).setCellValue(epicName);
-            row.createCell(1).setCellValue(epicsPlanned.get(epicName));
-            row.createCell(2).setCellValue(epicsPlanned.get(epicName) / deliveredStoryPointsSum);
-            rowIndex++;
-        }
+    /**
+     * @return only the issue fields the generated spreadsheets need, the rest is not downloaded at all
+     */
+    FieldProjection requiredFields() {
+        Set<String> fields = new TreeSet<>();
+        fields.addAll(EPICS_FIELDS);
+        fields.addAll(VELOCITY_OF_TEAMS_FIELDS);
+        fields.add(configuration.getStoryPointsColumn());
+        return FieldProjection.builder()
+                .fields(fields)
+                .build();
+    }
 
+    private Sprint loadSprintDetail() throws IOException {
+        return jiraClient.getSprintDetail(configuration.getSprintId());
     }
 
+    /**
+     * Reduces every issue once to the facts the sheets need, the sheets do not read the issue JSON again.
+     */
+    IssueFacts extractFacts(Sprint sprint, List<Issue> sprintIssues) {
+        IssueFacts facts = new IssueFacts(sprintIssues.size());
+        for (Issue issue : sprintIssues) {
+            double storyPoints = getStoryPoints(issue);
+            String statusCategory = getStatusCategory(issue);
+            // Only estimated issues are counted, so the sprint of the others does not matter
+            boolean isClosedInTheSprint = storyPoints > 0 && isClosedInTheSprint(issue, sprint, statusCategory);
+            facts.add(getEpicName(issue), getTeam(issue), storyPoints, isClosedInTheSprint);
+        }
+        return facts;
+    }
 
-    private void createSpreadsheetVelocityOfTeams(XSSFWorkbook workbook, Sprint sprint, List<Issue> sprintIssues) throws IOException {
+    void createSpreadsheetEpics(ReportSink sink, IssueFacts facts) throws IOException {
         double plannedStoryPointsSum = 0.0;
         double deliveredStoryPointsSum = 0.0;
-        Map<String, Work> teams = new HashMap<>();
-        for (Issue issue : sprintIssues) {
-            String team = getTeam(issue);
-            Work work = new Work();
-            if (teams.containsKey(team))
-                work = teams.get(team);
-            Double storyPoints = getStoryPoints(issue);
+        double[] epicsPlanned = new double[facts.getEpicCount()];
+        double[] epicsDelivered = new double[facts.getEpicCount()];
+        for (int issue = 0; issue < facts.size(); issue++) {
+            double storyPoints = facts.getStoryPoints(issue);
             if (storyPoints > 0) {
                 plannedStoryPointsSum += storyPoints;
-                boolean isClosedInTheSprint = isClosedInTheSprint(issue, sprint);
-                work.setPlanned(work.getPlanned() + storyPoints);
-                if (isClosedInTheSprint) {
+                if (facts.isClosedInSprint(issue)) {
                     deliveredStoryPointsSum += storyPoints;
-                    work.setFinished(work.getFinished() + storyPoints);
+                    epicsDelivered[facts.getEpicId(issue)] += storyPoints;
+                } else {
+                    epicsPlanned[facts.getEpicId(issue)] += storyPoints;
                 }
-                teams.put(team, work);
             }
         }
 
-        XSSFSheet spreadsheet = workbook.createSheet("VelocityOfTeams");
-        XSSFRow rowHeader = spreadsheet.createRow(0);
-        rowHeader.createCell(0).setCellValue("Sprint");
-        rowHeader.createCell(1).setCellValue("From");
-        rowHeader.createCell(2).setCellValue("To");
-        rowHeader.createCell(3).setCellValue("Total");
-
-        XSSFRow rowPlannedWork= spreadsheet.createRow(1);
-        rowPlannedWork.createCell(0).setCellValue(sprint.getName());
-        rowPlannedWork.createCell(1).setCellValue(sprint.getStartDate().toString());
-        rowPlannedWork.createCell(2).setCellValue(sprint.getEndDate().toString());
-        rowPlannedWork.createCell(3).setCellValue(plannedStoryPointsSum);
-
-        XSSFRow rowFinishedWork= spreadsheet.createRow(2);
-        rowFinishedWork.createCell(0).setCellValue(sprint.getName());
-        rowFinishedWork.createCell(1).setCellValue(sprint.getStartDate().toString());
-        rowFinishedWork.createCell(2).setCellValue(sprint.getEndDate().toString());
-        rowFinishedWork.createCell(3).setCellValue(deliveredStoryPointsSum);
-
-        int columnIndex = 4;
-        for (String teamName : teams.keySet()) {
-            rowHeader.createCell(columnIndex).setCellValue(teamName);
-            rowPlannedWork.createCell(columnIndex).setCellValue(teams.get(teamName).getPlanned());
-            rowFinishedWork.createCell(columnIndex).setCellValue(teams.get(teamName).getFinished());
-            columnIndex++;
+        writeEpicsSheet(sink, " Epics planned", facts, epicsPlanned, plannedStoryPointsSum);
+        writeEpicsSheet(sink, " Epics delivered", facts, epicsDelivered, deliveredStoryPointsSum);
+    }
+
+    /**
+     * Writes epics with story points, each with its share of the total.
+     */
+    private void writeEpicsSheet(ReportSink sink, String sheetName, IssueFacts facts, double[] epicStoryPoints, double storyPointsSum) throws IOException {
+        SheetWriter spreadsheet = sink.createSheet(sheetName, List.of("Epic name", "Story Points", "Percentage"));
+        for (int epicId = 0; epicId < epicStoryPoints.length; epicId++) {
+            if (epicStoryPoints[epicId] <= 0)
+                continue;
+            spreadsheet.text(facts.getEpicName(epicId))
+                    .number(epicStoryPoints[epicId])
+                    .number(epicStoryPoints[epicId] / storyPointsSum)
+                    .endRow();
         }
     }
 
-    private String getEpicName(Issue issue) {
-        JsonNode fields = issue.getFields();
-        JsonNode epic = fields.findValue("epic");
-        if ((epic == null) || (epic.isEmpty()))
-            return EMPTY_EPIC;
-        JsonNode epicSummary = epic.findValue("summary");
-        return epicSummary.asText();
+    void createSpreadsheetVelocityOfTeams(ReportSink sink, Sprint sprint, IssueFacts facts) throws IOException {
+        SprintVelocity velocity = SprintVelocity.of(sprint, facts);
+        Map<String, Work> teams = velocity.getTeams();
+
+        // Rows are written one after another, a streamed row cannot be revisited once it was written
+        List<String> columns = new ArrayList<>(List.of("Sprint", "From", "To", "Total"));
+        columns.addAll(teams.keySet());
+        SheetWriter spreadsheet = sink.createSheet("VelocityOfTeams", columns);
+
+        sprintDates(spreadsheet.text(sprint.getName()), sprint)
+                .number(velocity.getTotal().getPlanned());
+        for (Work work : teams.values()) {
+            spreadsheet.number(work.getPlanned());
+        }
+        spreadsheet.endRow();
+
+        sprintDates(spreadsheet.text(sprint.getName()), sprint)
+                .number(velocity.getTotal().getFinished());
+        for (Work work : teams.values()) {
+            spreadsheet.number(work.getFinished());
+        }
+        spreadsheet.endRow();
     }
 
-    private String getEpicLink(Issue issue) {
-        JsonNode fields = issue.getFields();
-        JsonNode epic = fields.findValue("epic");
-        if (epic == null)
-            return EMPTY_EPIC;
-        JsonNode epicKey = epic.findValue("key");
-        return configuration.getServer().getUrl() + "/browse/" + epicKey;
+    /**
+     * Writes the From and To cells, they stay empty for a future sprint which has no dates yet.
+     */
+    private static SheetWriter sprintDates(SheetWriter spreadsheet, Sprint sprint) throws IOException {
+        date(spreadsheet, sprint.getStartDate());
+        return date(spreadsheet, sprint.getEndDate());
     }
 
-    private String getIssueLink(Issue issue) {
-        String issueKey = issue.getKey();
-        return configuration.getServer().getUrl() + "/browse/" + issueKey;
+    private static SheetWriter date(SheetWriter spreadsheet, LocalDateTime date) throws IOException {
+        return date != null ? spreadsheet.text(date.toString()) : spreadsheet.blank();
+    }
+
+    private String getEpicName(Issue issue) {
+        JsonNode fields = issue.getFields();
+        JsonNode epic = FieldPaths.EPIC.resolve(fields);
+        if (epic.isMissingNode() || epic.isEmpty())
+            return EMPTY_EPIC;
+        return FieldPaths.EPIC_SUMMARY.resolve(fields).asText();
     }
 
     private String getTeam(Issue issue) {
-        if (issue.getAssignee() != null) {
-            for (Team team : configuration.getTeams()) {
-                if (team.getMembers().contains(issue.getAssignee().getEmailAddress()))
-                    return team.getName();
-            }
-        } else {
-            for (Component component : issue.getComponents()) {
-                for (Team team : configuration.getTeams()) {
-                    if (team.getComponents().contains(component.getName()))
-                        return team.getName();
-                }
-            }
-        }
-        return "Unknown";
+        return teamIndex.getTeam(issue.getAssignee(), issue.getComponents());
     }
 
-    private Double getStoryPoints(Issue issue) {
-        JsonNode fields = issue.getFields();
-        JsonNode storyPoints = fields.findValue(configuration.getStoryPointsColumn());
-        if (storyPoints == null)
-            return 0.0;
-        return storyPoints.asDouble();
+    private double getStoryPoints(Issue issue) {
+        return fieldPaths.getStoryPoints().resolve(issue.getFields()).asDouble();
     }
 
-    private boolean isDone(Issue issue) {
-        JsonNode fields = issue.getFields();
-        JsonNode status = fields.findValue("status");
-        JsonNode statusCategory = status.findValue("statusCategory");
-        JsonNode statusName = statusCategory.findValue("name");
-        return "Done".equals(statusName.asText());
+    /**
+     * @return name of the status category, for example "Done", {@code null} when the issue has no status
+     */
+    private String getStatusCategory(Issue issue) {
+        JsonNode statusName = FieldPaths.STATUS_CATEGORY_NAME.resolve(issue.getFields());
+        return statusName.isValueNode() ? statusName.asText() : null;
     }
 
-    private boolean isClosedInTheSprint(Issue issue, Sprint sprint){
-        boolean isDone = isDone(issue);
-        if (!isDone)
+    private boolean isClosedInTheSprint(Issue issue, Sprint sprint, String statusCategory) {
+        if (!"Done".equals(statusCategory))
             return false;
 
         JsonNode fields = issue.getFields();
-        JsonNode currentSprint = fields.findValue("sprint");
-        if ((currentSprint == null) || (currentSprint.findValue("id") == null)) {
-            JsonNode closedSprints = fields.findValue("closedSprints");
-            if ((closedSprints == null) || (closedSprints.size() <= 0))
-                return false;
-
-            for (int i=0; i<closedSprints.size(); i++){
-                int closedSprintId = closedSprints.get(i).findValue("id").asInt();
-                if (closedSprintId == sprint.getId())
+        JsonNode currentSprintId = FieldPaths.SPRINT_ID.resolve(fields);
+        if (currentSprintId.isMissingNode()) {
+            for (JsonNode closedSprint : FieldPaths.CLOSED_SPRINTS.resolve(fields)) {
+                if (FieldPaths.ID.resolve(closedSprint).asInt() == sprint.getId())
                     return true;
             }
             return false;
         }
-        int currentSprintId = currentSprint.findValue("id").asInt();
-        return sprint.getId() == currentSprintId;
+        return sprint.getId() == currentSprintId.asInt();
     }
 }
@@ -0,0 +1,96 @@
+package org.korecky.jiracli;
+
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.Trend;
+import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.report.SprintVelocity;
+import org.korecky.jiracli.report.Work;
+import org.korecky.jiracli.sink.ReportSink;
+import org.korecky.jiracli.sink.SheetWriter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Velocity of teams over the last closed sprints of a board, one row per sprint.
+ * <p>
+ * Sprint histories are downloaded in parallel through one shared {@link JiraClient}. Closed sprints do not change,
+ * so their issues are kept in the snapshot folder and later trends download only the sprints closed since,
+ * whether the response cache is enabled or not.
+ */
+public class VelocityTrend {
+    private final Trend trend;
+    private final JiraClient jiraClient;
+    private final Reports reports;
+
+    public VelocityTrend(Configuration configuration, JiraClient jiraClient) {
+        this.trend = configuration.getTrend();
+        this.jiraClient = jiraClient;
+        this.reports = new Reports(configuration, jiraClient);
+    }
+
+    public void generate() throws IOException {
+        if (trend.getBoardId() == null)
+            throw new IllegalArgumentException("Trend needs a board id");
+        List<Sprint> sprints = selectSprints();
+        System.out.println("Loading velocity of " + sprints.size() + " sprints of board " + trend.getBoardId());
+
+        List<Callable<SprintVelocity>> tasks = new ArrayList<>();
+        for (Sprint sprint : sprints) {
+            tasks.add(() -> reports.loadVelocity(sprint));
+        }
+        List<SprintVelocity> velocities = Parallel.invokeAll(trend.getParallelism(), tasks);
+
+        try (ReportSink sink = reports.createSink("Velocity trend " + trend.getBoardId())) {
+            createSpreadsheet(sink, "Planned", velocities, Work::getPlanned);
+            createSpreadsheet(sink, "Finished", velocities, Work::getFinished);
+            sink.commit();
+        }
+        System.out.println("Velocity trend ... Done");
+    }
+
+    /**
+     * @return the last closed sprints of the board, the oldest first
+     */
+    private List<Sprint> selectSprints() throws IOException {
+        List<Sprint> sprints = new ArrayList<>(jiraClient.getBoardSprints(trend.getBoardId(), "closed"));
+        sprints.sort(Comparator.comparing(Sprint::getEndDate, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())));
+        return sprints.subList(Math.max(0, sprints.size() - trend.getSprintCount()), sprints.size());
+    }
+
+    private void createSpreadsheet(ReportSink sink, String name, List<SprintVelocity> velocities,
+                                   ToDoubleFunction<Work> points) throws IOException {
+        // Union of teams over all sprints, a team missing in a sprint gets an empty cell
+        Set<String> teamNames = new LinkedHashSet<>();
+        for (SprintVelocity velocity : velocities) {
+            teamNames.addAll(velocity.getTeams().keySet());
+        }
+
+        List<String> columns = new ArrayList<>(List.of("Sprint", "From", "To", "Total"));
+        columns.addAll(teamNames);
+        SheetWriter spreadsheet = sink.createSheet(name, columns);
+
+        for (SprintVelocity velocity : velocities) {
+            Sprint sprint = velocity.getSprint();
+            spreadsheet.text(sprint.getName())
+                    .text(String.valueOf(sprint.getStartDate()))
+                    .text(String.valueOf(sprint.getEndDate()))
+                    .number(points.applyAsDouble(velocity.getTotal()));
+            for (String teamName : teamNames) {
+                Work work = velocity.getTeams().get(teamName);
+                if (work != null)
+                    spreadsheet.number(points.applyAsDouble(work));
+                else
+                    spreadsheet.blank();
+            }
+            spreadsheet.endRow();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.korecky.jiracli.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.korecky.jiracli.dto.Sprint;
+
+import java.util.List;
+
+/**
+ * Board with all its sprints, as stored in the {@link SprintCatalog}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardSprints {
+    private int id;
+    private String name;
+    private String type;
+    private List<Sprint> sprints;
+}
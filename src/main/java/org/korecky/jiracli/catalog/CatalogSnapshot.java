@@ -0,0 +1,27 @@
+package org.korecky.jiracli.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Content of the catalogue file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSnapshot {
+    /**
+     * Server and user the catalogue was built for, see {@link org.korecky.jiracli.JiraClient#getAccountKey()}.
+     */
+    private String account;
+    /**
+     * Time of the last refresh in epoch milliseconds.
+     */
+    private long refreshedAt;
+    private List<BoardSprints> boards;
+}
@@ -0,0 +1,206 @@
+package org.korecky.jiracli.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.korecky.jiracli.AtomicFiles;
+import org.korecky.jiracli.JiraClient;
+import org.korecky.jiracli.Parallel;
+import org.korecky.jiracli.configuration.Catalog;
+import org.korecky.jiracli.dto.Board;
+import org.korecky.jiracli.dto.Sprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persisted catalogue of boards and their sprints.
+ * <p>
+ * The first refresh downloads sprints of all boards. Later refreshes keep closed sprints as they are and only
+ * re-check active and future sprints, so a refresh costs one request per board instead of a full crawl.
+ * New boards are crawled fully, boards which disappeared are dropped.
+ * <p>
+ * The catalogue belongs to one server and user. It is named by them by default, and a catalogue file built for
+ * another server or user is built again instead of answering with sprints of another Jira instance.
+ */
+public class SprintCatalog implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger(SprintCatalog.class);
+    private static final String OPEN_SPRINT_STATES = "active,future";
+
+    private final JiraClient jiraClient;
+    private final Catalog settings;
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService refreshExecutor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile CatalogSnapshot snapshot;
+    private volatile SprintNameIndex nameIndex;
+
+    public SprintCatalog(JiraClient jiraClient, Catalog settings) {
+        this.jiraClient = jiraClient;
+        this.settings = settings;
+        this.file = Path.of(settings.getFile() != null
+                ? settings.getFile()
+                : System.getProperty("user.home") + File.separator + ".jira-cli" + File.separator + "catalog-" + jiraClient.getAccountKey() + ".json");
+        this.objectMapper = JiraClient.createObjectMapper();
+        this.refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sprint-catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CatalogSnapshot loaded = load();
+        if (loaded != null)
+            publish(loaded);
+    }
+
+    /**
+     * Finds sprints whose name contains all keywords, ignoring case, best matches first.
+     *
+     * @see SprintNameIndex#search(String)
+     */
+    public List<Sprint> findSprintsByName(String keyword) throws IOException {
+        getBoards();
+        return nameIndex.search(keyword);
+    }
+
+    /**
+     * @return all boards with their sprints, the catalogue is built or refreshed first when needed
+     */
+    public List<BoardSprints> getBoards() throws IOException {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            System.out.println("Building sprint catalogue ...");
+            current = refresh();
+        } else if (System.currentTimeMillis() - current.getRefreshedAt() > settings.getRefreshInterval() * 1000) {
+            if (settings.isBackgroundRefresh()) {
+                refreshInBackground();
+            } else {
+                System.out.println("Refreshing sprint catalogue ...");
+                current = refresh();
+            }
+        }
+        return current.getBoards();
+    }
+
+    /**
+     * Brings the catalogue up to date and stores it.
+     */
+    public synchronized CatalogSnapshot refresh() throws IOException {
+        Map<Integer, BoardSprints> knownBoards = new HashMap<>();
+        if (snapshot != null) {
+            for (BoardSprints board : snapshot.getBoards()) {
+                knownBoards.put(board.getId(), board);
+            }
+        }
+
+        long refreshStartedAt = System.currentTimeMillis();
+        List<Callable<BoardSprints>> tasks = new ArrayList<>();
+        for (Board board : jiraClient.getAllBoards()) {
+            tasks.add(() -> refreshBoard(board, knownBoards.get(board.getId())));
+        }
+        CatalogSnapshot refreshed = CatalogSnapshot.builder()
+                .account(jiraClient.getAccountKey())
+                .refreshedAt(refreshStartedAt)
+                .boards(Parallel.invokeAll(jiraClient.getParallelism(), tasks))
+                .build();
+
+        AtomicFiles.write(file, out -> objectMapper.writeValue(out, refreshed));
+        publish(refreshed);
+        LOGGER.info("Sprint catalogue refreshed in {} ms, {} boards", System.currentTimeMillis() - refreshStartedAt, refreshed.getBoards().size());
+        return refreshed;
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true))
+            return;
+        refreshExecutor.submit(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                LOGGER.warn("Background refresh of the sprint catalogue failed", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private BoardSprints refreshBoard(Board board, BoardSprints knownBoard) throws IOException {
+        List<Sprint> sprints = knownBoard == null
+                ? jiraClient.crawlBoardSprints(board, null)
+                : refreshSprints(board, knownBoard);
+        return BoardSprints.builder()
+                .id(board.getId())
+                .name(board.getName())
+                .type(board.getType())
+                .sprints(sprints)
+                .build();
+    }
+
+    /**
+     * Keeps closed sprints of the board as they are and downloads only the open ones.
+     */
+    private List<Sprint> refreshSprints(Board board, BoardSprints knownBoard) throws IOException {
+        List<Sprint> openSprints = jiraClient.crawlBoardSprints(board, OPEN_SPRINT_STATES);
+        Set<Integer> openSprintIds = new HashSet<>();
+        for (Sprint sprint : openSprints) {
+            openSprintIds.add(sprint.getId());
+        }
+
+        List<Sprint> sprints = new ArrayList<>();
+        for (Sprint sprint : knownBoard.getSprints()) {
+            if ("closed".equals(sprint.getState())) {
+                sprints.add(sprint);
+            } else if (!openSprintIds.contains(sprint.getId())) {
+                // Sprint is not open any more, so it was closed or deleted
+                Sprint currentSprint = jiraClient.getSprintDetail(sprint.getId());
+                if (currentSprint != null)
+                    sprints.add(currentSprint);
+            }
+        }
+        sprints.addAll(openSprints);
+        return sprints;
+    }
+
+    private void publish(CatalogSnapshot published) {
+        List<Sprint> sprints = new ArrayList<>();
+        for (BoardSprints board : published.getBoards()) {
+            sprints.addAll(board.getSprints());
+        }
+        nameIndex = new SprintNameIndex(sprints);
+        snapshot = published;
+    }
+
+    private CatalogSnapshot load() {
+        if (!Files.exists(file))
+            return null;
+        try (InputStream in = Files.newInputStream(file)) {
+            CatalogSnapshot loaded = objectMapper.readValue(in, CatalogSnapshot.class);
+            if (!jiraClient.getAccountKey().equals(loaded.getAccount())) {
+                LOGGER.info("Sprint catalogue {} belongs to another server or user, it will be built again", file);
+                return null;
+            }
+            return loaded;
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read sprint catalogue {}, it will be built again", file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,258 @@
+package org.korecky.jiracli.catalog;
+
+import org.korecky.jiracli.dto.Sprint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * In-memory n-gram index over sprint names.
+ * <p>
+ * A query is split into keywords and a sprint matches when its name contains every keyword, ignoring case,
+ * so a single keyword finds the same sprints as a plain {@code contains} search. Candidates are found by
+ * intersecting the posting lists of the keyword trigrams (bigrams for two character keywords) and are then
+ * checked against the name. Matches are ranked by the number of keywords found as whole words, then as word
+ * prefixes and then by trigram similarity of the query and the name; equally ranked sprints keep their indexed
+ * order.
+ */
+public class SprintNameIndex {
+    private static final int[] NO_SPRINTS = new int[0];
+    private static final int INSIDE_WORD = 0;
+    private static final int WORD_PREFIX = 1;
+    private static final int WHOLE_WORD = 2;
+
+    private final Sprint[] sprints;
+    private final String[] names;
+    private final int[] trigramCounts;
+    private final Map<Long, int[]> postings;
+
+    public SprintNameIndex(Collection<Sprint> sprints) {
+        this.sprints = sprints.toArray(new Sprint[0]);
+        this.names = new String[this.sprints.length];
+        this.trigramCounts = new int[this.sprints.length];
+
+        Map<Long, Postings> builders = new HashMap<>();
+        for (int i = 0; i < this.sprints.length; i++) {
+            String name = this.sprints[i].getName();
+            names[i] = name != null ? name.toLowerCase() : "";
+            for (int gramLength = 2; gramLength <= 3; gramLength++) {
+                for (int start = 0; start + gramLength <= names[i].length(); start++) {
+                    Postings gramPostings = builders.computeIfAbsent(gram(names[i], start, gramLength), key -> new Postings());
+                    if (gramPostings.add(i) && gramLength == 3)
+                        trigramCounts[i]++;
+                }
+            }
+        }
+
+        this.postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((gram, gramPostings) -> postings.put(gram, gramPostings.toArray()));
+    }
+
+    /**
+     * @param query keywords separated by white space
+     * @return sprints whose name contains all keywords, best matches first
+     */
+    public List<Sprint> search(String query) {
+        String[] keywords = keywords(query);
+        if (keywords.length == 0)
+            return new ArrayList<>(Arrays.asList(sprints));
+
+        String[] queryTrigrams = trigrams(String.join(" ", keywords));
+        List<Match> matches = new ArrayList<>();
+        for (int position : candidates(keywords)) {
+            Match match = match(position, keywords, queryTrigrams);
+            if (match != null)
+                matches.add(match);
+        }
+        // List.sort is stable, so equally ranked sprints stay in index order
+        matches.sort(Comparator.comparingInt(Match::wholeWords)
+                .thenComparingInt(Match::wordPrefixes)
+                .thenComparingDouble(Match::similarity)
+                .reversed());
+
+        List<Sprint> result = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            result.add(sprints[match.position()]);
+        }
+        return result;
+    }
+
+    /**
+     * Tells whether a sprint is found by the query without building an index, e.g. to drop sprints which cannot
+     * match while they are downloaded.
+     *
+     * @param query keywords separated by white space
+     * @return predicate accepting sprints whose name contains all keywords, ignoring case
+     */
+    public static Predicate<Sprint> matcher(String query) {
+        String[] keywords = keywords(query);
+        return sprint -> {
+            String name = sprint.getName() != null ? sprint.getName().toLowerCase() : "";
+            for (String keyword : keywords) {
+                if (!name.contains(keyword))
+                    return false;
+            }
+            return true;
+        };
+    }
+
+    /**
+     * @return positions of sprints containing all keyword n-grams, every sprint when all keywords are single characters
+     */
+    private int[] candidates(String[] keywords) {
+        List<int[]> gramPostings = new ArrayList<>();
+        for (String keyword : keywords) {
+            int gramLength = Math.min(keyword.length(), 3);
+            if (gramLength < 2)
+                continue;
+            for (int start = 0; start + gramLength <= keyword.length(); start++) {
+                gramPostings.add(postings.getOrDefault(gram(keyword, start, gramLength), NO_SPRINTS));
+            }
+        }
+        if (gramPostings.isEmpty()) {
+            int[] all = new int[sprints.length];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        // Intersecting from the shortest list keeps the intermediate result small
+        gramPostings.sort(Comparator.comparingInt(list -> list.length));
+        int[] candidates = gramPostings.get(0);
+        for (int i = 1; i < gramPostings.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, gramPostings.get(i));
+        }
+        return candidates;
+    }
+
+    private Match match(int position, String[] keywords, String[] queryTrigrams) {
+        String name = names[position];
+        int wholeWords = 0;
+        int wordPrefixes = 0;
+        for (String keyword : keywords) {
+            int index = name.indexOf(keyword);
+            if (index < 0)
+                return null;
+            int occurrence = bestOccurrence(name, keyword, index);
+            if (occurrence == WHOLE_WORD) {
+                wholeWords++;
+            } else if (occurrence == WORD_PREFIX) {
+                wordPrefixes++;
+            }
+        }
+        return new Match(position, wholeWords, wordPrefixes, similarity(queryTrigrams, position));
+    }
+
+    /**
+     * @return Dice coefficient of the query and name trigrams
+     */
+    private double similarity(String[] queryTrigrams, int position) {
+        String name = names[position];
+        int sharedTrigrams = 0;
+        for (String trigram : queryTrigrams) {
+            if (name.contains(trigram))
+                sharedTrigrams++;
+        }
+        int trigrams = queryTrigrams.length + trigramCounts[position];
+        return trigrams == 0 ? 0 : 2.0 * sharedTrigrams / trigrams;
+    }
+
+    /**
+     * @return how well the best occurrence of the keyword lines up with the words of the name
+     */
+    private static int bestOccurrence(String name, String keyword, int index) {
+        int best = INSIDE_WORD;
+        while (index >= 0 && best != WHOLE_WORD) {
+            if (index == 0 || !Character.isLetterOrDigit(name.charAt(index - 1))) {
+                int end = index + keyword.length();
+                best = end == name.length() || !Character.isLetterOrDigit(name.charAt(end)) ? WHOLE_WORD : WORD_PREFIX;
+            }
+            index = name.indexOf(keyword, index + 1);
+        }
+        return best;
+    }
+
+    /**
+     * Looks up each candidate in the posting list by binary search, which is cheaper than a merge
+     * when the candidates are already few and the posting list is long.
+     */
+    private static int[] intersect(int[] candidates, int[] gramPostings) {
+        int[] result = new int[candidates.length];
+        int size = 0;
+        int from = 0;
+        for (int candidate : candidates) {
+            int index = Arrays.binarySearch(gramPostings, from, gramPostings.length, candidate);
+            if (index >= 0) {
+                result[size++] = candidate;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static String[] keywords(String query) {
+        Set<String> keywords = new LinkedHashSet<>();
+        for (String keyword : query.toLowerCase().trim().split("\\s+")) {
+            if (!keyword.isEmpty())
+                keywords.add(keyword);
+        }
+        return keywords.toArray(new String[0]);
+    }
+
+    private static String[] trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int start = 0; start + 3 <= text.length(); start++) {
+            trigrams.add(text.substring(start, start + 3));
+        }
+        return trigrams.toArray(new String[0]);
+    }
+
+    /**
+     * Packs up to three characters into one key, so the index does not hold a string per n-gram.
+     */
+    private static long gram(String text, int start, int length) {
+        long gram = length;
+        for (int i = start; i < start + length; i++) {
+            gram = (gram << 16) | text.charAt(i);
+        }
+        return gram;
+    }
+
+    /**
+     * Growable list of sprint positions in ascending order.
+     */
+    private static class Postings {
+        private int[] positions = new int[4];
+        private int size;
+
+        /**
+         * @return {@code false} when the position was already added for the same name
+         */
+        boolean add(int position) {
+            if (size > 0 && positions[size - 1] == position)
+                return false;
+            if (size == positions.length)
+                positions = Arrays.copyOf(positions, size * 2);
+            positions[size++] = position;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+
+    private record Match(int position, int wholeWords, int wordPrefixes, double similarity) {
+    }
+}
@@ -0,0 +1,31 @@
+package org.korecky.jiracli.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Reports of several sprints generated in one run. Sprints are given either as a list of ids,
+ * or as a board and the states of its sprints.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Batch {
+    private List<Integer> sprintIds;
+    private Integer boardId;
+    /**
+     * Comma separated sprint states (future, active, closed) selected on the board.
+     */
+    @Builder.Default
+    private String state = "active";
+    /**
+     * Number of reports generated at the same time.
+     */
+    @Builder.Default
+    private int parallelism = 4;
+}
@@ -0,0 +1,37 @@
+package org.korecky.jiracli.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * On-disk cache of Jira responses. Time to live of every endpoint is in seconds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cache {
+    @Builder.Default
+    private boolean enabled = false;
+    /**
+     * Cache folder, "{YOUR_HOME_FOLDER}/.jira-cli/cache" when not set.
+     */
+    private String folder;
+    /**
+     * Least recently used responses are removed when the cache grows over this size.
+     */
+    @Builder.Default
+    private int maxSizeMb = 512;
+    @Builder.Default
+    private long boardsTtl = 86_400;
+    @Builder.Default
+    private long boardSprintsTtl = 3_600;
+    @Builder.Default
+    private long sprintTtl = 600;
+    @Builder.Default
+    private long sprintIssuesTtl = 300;
+    @Builder.Default
+    private long issueTtl = 300;
+}
@@ -0,0 +1,33 @@
+package org.korecky.jiracli.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Persisted catalogue of boards and their sprints, used to search sprints by name without crawling all boards.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Catalog {
+    @Builder.Default
+    private boolean enabled = false;
+    /**
+     * Catalogue file, "{YOUR_HOME_FOLDER}/.jira-cli/catalog-{HASH_OF_SERVER_AND_USER}.json" when not set.
+     * A file built for another server or user is built again.
+     */
+    private String file;
+    /**
+     * Catalogue older than this (in seconds) is refreshed. Closed sprints are never downloaded again.
+     */
+    @Builder.Default
+    private long refreshInterval = 3_600;
+    /**
+     * Answer from the current catalogue immediately and refresh it in the background.
+     */
+    @Builder.Default
+    private boolean backgroundRefresh = true;
+}
@@ -17,4 +17,24 @@ public class Configuration {
     private String storyPointsColumn;
     private Server server;
     private List<Team> teams;
+    /**
+     * Keep local snapshot of sprint issues and download only issues changed since the previous run.
+     */
+    private boolean incrementalSync;
+    /**
+     * Folder with the snapshots, "{YOUR_HOME_FOLDER}/.jira-cli/snapshots" when not set. Issues of closed sprints
+     * of the velocity trend are kept there even without {@code incrementalSync}. Every server and user has its own
+     * subfolder.
+     */
+    private String snapshotFolder;
+    @Builder.Default
+    private Output output = new Output();
+    /**
+     * Reports of several sprints in one run, {@code sprintId} is not used when set.
+     */
+    private Batch batch;
+    /**
+     * Velocity trend of the last closed sprints of a board, {@code sprintId} is not used when set.
+     */
+    private Trend trend;
 }
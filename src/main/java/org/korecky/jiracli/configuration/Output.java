@@ -0,0 +1,42 @@
+package org.korecky.jiracli.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.korecky.jiracli.sink.ReportFormat;
+
+/**
+ * Format of the reports and tuning of the streamed XLSX workbook.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Output {
+    /**
+     * XLSX for people, CSV or JSON lines for scripts and data pipelines. Only XLSX loads Apache POI.
+     */
+    @Builder.Default
+    private ReportFormat format = ReportFormat.XLSX;
+    /**
+     * Number of rows of each sheet kept in memory, older rows are flushed to a temporary file.
+     */
+    @Builder.Default
+    private int rowWindow = 100;
+    /**
+     * Compress the temporary sheet files, they are several times smaller at the cost of some CPU.
+     */
+    @Builder.Default
+    private boolean compressTempFiles = true;
+    /**
+     * Keep one table of all strings in memory. It makes the report smaller when the same texts repeat,
+     * but memory use grows with the number of distinct strings.
+     */
+    @Builder.Default
+    private boolean sharedStrings = false;
+    /**
+     * Folder for the temporary sheet files, the system temporary folder when not set.
+     */
+    private String tempFolder;
+}
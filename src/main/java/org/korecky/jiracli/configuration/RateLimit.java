@@ -0,0 +1,45 @@
+package org.korecky.jiracli.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Throttling of requests sent to Jira and retries of throttled requests. All times are in milliseconds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimit {
+    /**
+     * Highest request rate, 0 sends requests as fast as possible and only honours pauses requested by the server.
+     */
+    @Builder.Default
+    private double requestsPerSecond = 20;
+    /**
+     * Number of requests which can be sent at once after a quiet period.
+     */
+    @Builder.Default
+    private int burst = 20;
+    /**
+     * The rate is halved on every throttled response, but never below this.
+     */
+    @Builder.Default
+    private double minRequestsPerSecond = 1;
+    /**
+     * Retries of one request answered with 429, 502, 503 or 504.
+     */
+    @Builder.Default
+    private int maxRetries = 5;
+    @Builder.Default
+    private long initialBackoff = 500;
+    @Builder.Default
+    private long maxBackoff = 30_000;
+    /**
+     * Retries allowed as a share of all requests, so a struggling server is not flooded with retries.
+     */
+    @Builder.Default
+    private double retryBudget = 0.2;
+}
@@ -13,4 +13,17 @@ public class Server {
     private String url;
     private String username;
     private String password;
+    /**
+     * Maximum number of requests sent to the server at the same time. Value 1 keeps the sequential behaviour.
+     */
+    @Builder.Default
+    private int parallelism = 1;
+    @Builder.Default
+    private Transport transport = new Transport();
+    @Builder.Default
+    private RateLimit rateLimit = new RateLimit();
+    @Builder.Default
+    private Cache cache = new Cache();
+    @Builder.Default
+    private Catalog catalog = new Catalog();
 }
@@ -0,0 +1,33 @@
+package org.korecky.jiracli.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tuning of the HTTP client used for communication with Jira. All times are in milliseconds.
+ * <p>
+ * The JDK HTTP client keeps and reuses its connections on its own, the number of requests sent at the same time
+ * is limited by {@link Server#getParallelism()}. The connection pool settings of the former Apache HTTP client
+ * ({@code maxConnections}, {@code maxConnectionsPerRoute}, {@code connectionRequestTimeout}, {@code keepAlive}
+ * and {@code idleConnectionTimeout}) are not known any more, a configuration file with them does not load.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Transport {
+    @Builder.Default
+    private int connectTimeout = 10_000;
+    /**
+     * Longest wait for the response of one request.
+     */
+    @Builder.Default
+    private int socketTimeout = 60_000;
+    /**
+     * Lifetime of cached TLS sessions, which are resumed instead of doing a full handshake for every new connection.
+     */
+    @Builder.Default
+    private int tlsSessionTimeout = 3_600_000;
+}
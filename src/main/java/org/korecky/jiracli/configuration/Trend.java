@@ -0,0 +1,27 @@
+package org.korecky.jiracli.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Velocity of teams over the last closed sprints of a board.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Trend {
+    private Integer boardId;
+    /**
+     * Number of the last closed sprints in the trend.
+     */
+    @Builder.Default
+    private int sprintCount = 6;
+    /**
+     * Number of sprint histories downloaded at the same time.
+     */
+    @Builder.Default
+    private int parallelism = 4;
+}
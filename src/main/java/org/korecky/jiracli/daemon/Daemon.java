@@ -0,0 +1,167 @@
+package org.korecky.jiracli.daemon;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Set;
+
+/**
+ * Serves thin client invocations over a Unix domain socket, so that they run in a warm JVM with a warm
+ * {@code JiraClient}: its connections, response cache and sprint catalogue live as long as the daemon.
+ * <p>
+ * Requests are handled one after another. {@link System#out} is redirected to the client during the request,
+ * so everything the command prints is streamed back, also from the threads of a parallel run.
+ */
+public class Daemon implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger(Daemon.class);
+
+    @FunctionalInterface
+    public interface RequestHandler {
+        /**
+         * Executes the command, {@link System#out} is sent to the client.
+         *
+         * @return exit code of the thin client
+         */
+        int handle(DaemonRequest request) throws Exception;
+    }
+
+    private final Path socket;
+    private final ServerSocketChannel server;
+    private volatile boolean stopped;
+
+    /**
+     * Binds the socket. A stale socket file left by a daemon which did not stop cleanly is replaced.
+     * The folder of the socket is made accessible by its owner only before the socket is bound, also when it
+     * already exists, so nobody else can connect before the permissions of the socket itself are restricted.
+     *
+     * @throws IllegalStateException when another daemon listens on the socket, or when the folder of the socket
+     *                               belongs to another user
+     */
+    public Daemon(Path socket) throws IOException {
+        this.socket = socket;
+        try (DaemonClient client = DaemonClient.connect(socket)) {
+            if (client != null)
+                throw new IllegalStateException("Daemon is already running on " + socket);
+        }
+        Files.deleteIfExists(socket);
+        createPrivateFolder(socket.toAbsolutePath().getParent());
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        try {
+            // The daemon runs with the Jira credentials of its user, nobody else may send it commands
+            Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            LOGGER.warn("Cannot restrict permissions of {}", socket);
+        }
+    }
+
+    /**
+     * Creates the folder accessible by its owner only, or restricts an existing folder of the current user.
+     */
+    private static void createPrivateFolder(Path folder) throws IOException {
+        Set<PosixFilePermission> ownerOnly = PosixFilePermissions.fromString("rwx------");
+        try {
+            if (!Files.isDirectory(folder)) {
+                Files.createDirectories(folder, PosixFilePermissions.asFileAttribute(ownerOnly));
+                return;
+            }
+            if (Files.getPosixFilePermissions(folder).equals(ownerOnly))
+                return;
+            UserPrincipal user = folder.getFileSystem().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            if (!Files.getOwner(folder).equals(user))
+                throw new IllegalStateException("Folder " + folder + " of the socket is accessible by other users and does not belong to " + user.getName());
+            LOGGER.warn("Restricting permissions of {} to its owner", folder);
+            Files.setPosixFilePermissions(folder, ownerOnly);
+        } catch (UnsupportedOperationException e) {
+            LOGGER.warn("Cannot restrict permissions of {}", folder);
+            Files.createDirectories(folder);
+        }
+    }
+
+    public Path getSocket() {
+        return socket;
+    }
+
+    /**
+     * Serves requests until {@link #stop()} or {@link #close()}.
+     */
+    public void run(RequestHandler handler) throws IOException {
+        while (!stopped) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (AsynchronousCloseException e) {
+                // Closed by close() from another thread
+                return;
+            }
+            try (channel) {
+                serve(channel, handler);
+            } catch (IOException e) {
+                LOGGER.warn("Request failed, client disconnected: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops after the current request.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private void serve(SocketChannel channel, RequestHandler handler) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        DaemonRequest request = DaemonProtocol.readRequest(in);
+        LOGGER.info("Request {}", request.args());
+
+        PrintStream clientOut = new PrintStream(new BufferedOutputStream(new DaemonProtocol.OutputFrames(out)), true, StandardCharsets.UTF_8);
+        PrintStream stdout = System.out;
+        int exitCode;
+        long start = System.nanoTime();
+        System.setOut(clientOut);
+        try {
+            exitCode = handler.handle(request);
+        } catch (Exception e) {
+            LOGGER.error("Request {} failed", request.args(), e);
+            clientOut.println("Error: " + e);
+            exitCode = 1;
+        } finally {
+            System.setOut(stdout);
+        }
+        clientOut.flush();
+        if (clientOut.checkError())
+            throw new IOException("Cannot send output of " + request.args());
+        DaemonProtocol.writeExit(out, exitCode);
+        LOGGER.info("Request {} finished with {} in {} ms", request.args(), exitCode, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Closes the socket and deletes its file, a request in progress is finished.
+     */
+    @Override
+    public void close() throws IOException {
+        stopped = true;
+        server.close();
+        Files.deleteIfExists(socket);
+    }
+}
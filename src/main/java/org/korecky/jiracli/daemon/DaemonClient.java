@@ -0,0 +1,90 @@
+package org.korecky.jiracli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Thin client, sends one command line to the {@link Daemon} and streams its output back.
+ * It does not need the configuration, Jackson or the HTTP client, so it starts as fast as the JVM does.
+ */
+public class DaemonClient implements AutoCloseable {
+    private final SocketChannel channel;
+
+    private DaemonClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @return {@code ~/.jira-cli/daemon.sock}
+     */
+    public static Path defaultSocket() {
+        return Path.of(System.getProperty("user.home"), ".jira-cli", "daemon.sock");
+    }
+
+    /**
+     * @return connected client, or {@code null} when no daemon listens on the socket
+     */
+    public static DaemonClient connect(Path socket) throws IOException {
+        if (!Files.exists(socket))
+            return null;
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+        } catch (SocketException e) {
+            // Socket file of a daemon which did not stop cleanly
+            channel.close();
+            return null;
+        }
+        return new DaemonClient(channel);
+    }
+
+    /**
+     * Executes the command in the daemon.
+     *
+     * @param out receives the output of the command as it is printed
+     * @return exit code of the command
+     */
+    public int execute(DaemonRequest request, OutputStream out) throws IOException {
+        DaemonProtocol.writeRequest(new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel))), request);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        byte[] buffer = new byte[8192];
+        while (true) {
+            byte frame;
+            try {
+                frame = in.readByte();
+            } catch (EOFException e) {
+                throw new EOFException("Daemon closed the connection before the command finished");
+            }
+            if (frame == DaemonProtocol.EXIT)
+                return in.readInt();
+            if (frame != DaemonProtocol.OUTPUT)
+                throw new IOException("Unexpected frame " + frame + " from the daemon");
+            int length = in.readInt();
+            while (length > 0) {
+                int read = in.read(buffer, 0, Math.min(buffer.length, length));
+                if (read < 0)
+                    throw new EOFException("Daemon closed the connection before the command finished");
+                out.write(buffer, 0, read);
+                length -= read;
+            }
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,84 @@
+package org.korecky.jiracli.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary protocol between the thin client and the daemon, one request per connection.
+ * <p>
+ * The client sends the protocol version, its working folder and its arguments. The daemon answers with frames:
+ * output of the command as it is printed, and finally the exit code.
+ */
+final class DaemonProtocol {
+    static final int VERSION = 1;
+    static final byte OUTPUT = 'O';
+    static final byte EXIT = 'X';
+
+    private DaemonProtocol() {
+    }
+
+    static void writeRequest(DataOutputStream out, DaemonRequest request) throws IOException {
+        out.writeInt(VERSION);
+        out.writeUTF(request.workingFolder().toString());
+        out.writeInt(request.args().size());
+        for (String arg : request.args()) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+    }
+
+    static DaemonRequest readRequest(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported protocol version " + version + ", client and daemon have to be of the same version");
+        Path workingFolder = Path.of(in.readUTF());
+        int argCount = in.readInt();
+        List<String> args = new ArrayList<>(argCount);
+        for (int i = 0; i < argCount; i++) {
+            args.add(in.readUTF());
+        }
+        return new DaemonRequest(args, workingFolder);
+    }
+
+    static void writeExit(DataOutputStream out, int exitCode) throws IOException {
+        out.writeByte(EXIT);
+        out.writeInt(exitCode);
+        out.flush();
+    }
+
+    /**
+     * Sends everything written to it as output frames, a frame per write.
+     * Buffer it, so that single characters are not sent one by one.
+     */
+    static class OutputFrames extends OutputStream {
+        private final DataOutputStream out;
+
+        OutputFrames(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0)
+                return;
+            out.writeByte(OUTPUT);
+            out.writeInt(length);
+            out.write(buffer, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.korecky.jiracli.daemon;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command line of one thin client invocation.
+ *
+ * @param args          arguments of the client, passed to the daemon as they are
+ * @param workingFolder working folder of the client, relative paths of the arguments are resolved against it
+ */
+public record DaemonRequest(List<String> args, Path workingFolder) {
+}
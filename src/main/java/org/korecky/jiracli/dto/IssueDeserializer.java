@@ -0,0 +1,73 @@
+package org.korecky.jiracli.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads {@link Issue} in a single pass over the JSON. While the {@code fields} object is read, assignee, components
+ * and labels are converted from their subtrees directly, without writing them back to text and parsing them again.
+ */
+public class IssueDeserializer extends StdDeserializer<Issue> {
+
+    public IssueDeserializer() {
+        super(Issue.class);
+    }
+
+    @Override
+    public Issue deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        Issue issue = new Issue();
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT)
+            token = p.nextToken();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "id" -> issue.setId(p.getValueAsInt());
+                case "key" -> issue.setKey(p.getValueAsString());
+                case "self" -> issue.setSelf(p.getValueAsString());
+                case "fields" -> readFields(p, ctxt, issue);
+                default -> p.skipChildren();
+            }
+        }
+        return issue;
+    }
+
+    private void readFields(JsonParser p, DeserializationContext ctxt, Issue issue) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            issue.setFields(ctxt.readTree(p));
+            return;
+        }
+
+        ObjectNode fields = ctxt.getNodeFactory().objectNode();
+        for (JsonToken token = p.nextToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            p.nextToken();
+            JsonNode value = ctxt.readTree(p);
+            fields.set(name, value);
+            if (value.isNull())
+                continue;
+
+            switch (name) {
+                case "assignee" -> issue.setAssignee(ctxt.readTreeAsValue(value, Assignee.class));
+                case "components" -> issue.setComponents(ctxt.readTreeAsValue(value, listOf(ctxt, Component.class)));
+                case "labels" -> issue.setLabels(ctxt.readTreeAsValue(value, listOf(ctxt, String.class)));
+                default -> {
+                }
+            }
+        }
+        issue.setFields(fields);
+    }
+
+    private static JavaType listOf(DeserializationContext ctxt, Class<?> elementType) {
+        return ctxt.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+}
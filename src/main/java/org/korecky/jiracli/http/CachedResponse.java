@@ -0,0 +1,21 @@
+package org.korecky.jiracli.http;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * Response stored in {@link ResponseCache}.
+ */
+@Data
+@AllArgsConstructor
+public class CachedResponse {
+    private Path body;
+    private String etag;
+    private String lastModified;
+    /**
+     * Response is younger than time to live of its endpoint, or immutable, and can be used without asking the server.
+     */
+    private boolean fresh;
+}
@@ -0,0 +1,40 @@
+package org.korecky.jiracli.http;
+
+import java.net.URI;
+import java.util.regex.Pattern;
+
+/**
+ * Jira REST endpoints used by the client, recognized from the request path.
+ */
+public enum Endpoint {
+    BOARDS("/rest/agile/1.0/board", "/rest/agile/1\\.0/board/?"),
+    BOARD_SPRINTS("/rest/agile/1.0/board/{boardId}/sprint", "/rest/agile/1\\.0/board/[^/]+/sprint/?"),
+    SPRINT("/rest/agile/1.0/sprint/{sprintId}", "/rest/agile/1\\.0/sprint/[^/]+/?"),
+    SPRINT_ISSUES("/rest/agile/1.0/sprint/{sprintId}/issue", "/rest/agile/1\\.0/sprint/[^/]+/issue/?"),
+    ISSUE("/rest/api/2/issue/{issueKey}", "/rest/api/2/issue/[^/]+/?"),
+    OTHER("other", ".*");
+
+    private final String template;
+    private final Pattern pattern;
+
+    Endpoint(String template, String pathRegex) {
+        this.template = template;
+        this.pattern = Pattern.compile("(?:/.*)?" + pathRegex);
+    }
+
+    /**
+     * @return URI template of the endpoint, e.g. {@code /rest/agile/1.0/sprint/{sprintId}}
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    public static Endpoint of(URI uri) {
+        String path = uri.getPath();
+        for (Endpoint endpoint : values()) {
+            if (endpoint.pattern.matcher(path).matches())
+                return endpoint;
+        }
+        return OTHER;
+    }
+}
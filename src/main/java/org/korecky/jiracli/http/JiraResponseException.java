@@ -0,0 +1,17 @@
+package org.korecky.jiracli.http;
+
+/**
+ * Jira answered with an error status which cannot be retried.
+ */
+public class JiraResponseException extends RuntimeException {
+    private final int statusCode;
+
+    public JiraResponseException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,162 @@
+package org.korecky.jiracli.http;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.korecky.jiracli.configuration.RateLimit;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket shared by all requests of one client, which adapts its rate to the server.
+ * <p>
+ * The bucket refills at the current rate up to the burst size and every request takes one token. A throttled
+ * response halves the rate and every successful one raises it a little back towards the configured maximum.
+ * Pauses requested by the server with {@code Retry-After} or an exhausted {@code X-RateLimit-Remaining}
+ * stop all requests, not only the throttled one.
+ */
+public class RateLimiter {
+    private static final Logger LOGGER = LogManager.getLogger(RateLimiter.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private final LongSupplier nanoClock;
+
+    private double rate;
+    private double tokens;
+    private long refilledAt;
+    private long pausedUntil;
+
+    public RateLimiter(RateLimit rateLimit) {
+        this(rateLimit, System::nanoTime);
+    }
+
+    RateLimiter(RateLimit rateLimit, LongSupplier nanoClock) {
+        this.maxRate = rateLimit.getRequestsPerSecond();
+        this.minRate = Math.min(Math.max(rateLimit.getMinRequestsPerSecond(), 0.01), Math.max(maxRate, 0.01));
+        this.burst = Math.max(1, rateLimit.getBurst());
+        this.nanoClock = nanoClock;
+        this.rate = maxRate;
+        this.tokens = burst;
+        this.refilledAt = nanoClock.getAsLong();
+        this.pausedUntil = refilledAt;
+    }
+
+    /**
+     * Takes a token without waiting, the caller schedules the wait itself instead of blocking a thread.
+     *
+     * @return 0 when a token was taken, otherwise nanoseconds to wait before trying again
+     */
+    public synchronized long tryAcquire() {
+        long now = nanoClock.getAsLong();
+        if (now - pausedUntil < 0)
+            return pausedUntil - now;
+        if (maxRate <= 0)
+            return 0;
+
+        tokens = Math.min(burst, tokens + (now - refilledAt) * rate / NANOS_PER_SECOND);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / rate * NANOS_PER_SECOND);
+    }
+
+    /**
+     * Adjusts the limiter to the response status and headers.
+     *
+     * @param headers value of the first header with the given name, or {@code null}
+     */
+    public void update(int statusCode, Function<String, String> headers) {
+        long now = System.currentTimeMillis();
+        if (statusCode == 429 || statusCode == 503) {
+            throttled(retryAfterMillis(headers.apply("Retry-After"), now));
+            return;
+        }
+
+        String remaining = headers.apply("X-RateLimit-Remaining");
+        if (remaining != null && remaining.trim().equals("0")) {
+            slowDown(resetMillis(headers.apply("X-RateLimit-Reset"), now));
+        } else if (Boolean.parseBoolean(headers.apply("X-RateLimit-NearLimit"))) {
+            slowDown(0);
+        } else if (statusCode >= 200 && statusCode < 300) {
+            succeeded();
+        }
+    }
+
+    /**
+     * Server refused the request, the rate is halved and all requests wait for the given time.
+     */
+    synchronized void throttled(long pauseMillis) {
+        slowDown(pauseMillis);
+    }
+
+    /**
+     * Successful response raises the rate by one percent of the maximum.
+     */
+    synchronized void succeeded() {
+        if (maxRate > 0 && rate < maxRate)
+            rate = Math.min(maxRate, rate + maxRate / 100);
+    }
+
+    synchronized double getRate() {
+        return rate;
+    }
+
+    private synchronized void slowDown(long pauseMillis) {
+        if (maxRate > 0 && rate > minRate) {
+            rate = Math.max(minRate, rate / 2);
+            LOGGER.info("Jira is throttling requests, rate lowered to {} requests per second", String.format("%.2f", rate));
+        }
+        if (pauseMillis > 0) {
+            long until = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(pauseMillis);
+            if (until - pausedUntil > 0)
+                pausedUntil = until;
+        }
+    }
+
+    /**
+     * @param value {@code Retry-After} header, delay in seconds or an HTTP date
+     * @return pause in milliseconds, 0 when the header is missing or invalid
+     */
+    static long retryAfterMillis(String value, long nowMillis) {
+        if (value == null || value.isBlank())
+            return 0;
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, date.toInstant().toEpochMilli() - nowMillis);
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @param value {@code X-RateLimit-Reset} header, an ISO instant sent by Jira Cloud or epoch seconds
+     * @return milliseconds until the limit resets, 0 when the header is missing or invalid
+     */
+    static long resetMillis(String value, long nowMillis) {
+        if (value == null || value.isBlank())
+            return 0;
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim())) - nowMillis);
+        } catch (NumberFormatException e) {
+            try {
+                return Math.max(0, Instant.parse(value.trim()).toEpochMilli() - nowMillis);
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+}
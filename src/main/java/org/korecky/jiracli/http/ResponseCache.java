@@ -0,0 +1,236 @@
+package org.korecky.jiracli.http;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.korecky.jiracli.AtomicFiles;
+import org.korecky.jiracli.configuration.Cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of GET responses, keyed by user and URI.
+ * <p>
+ * Every entry is stored as two files, the response body and its metadata (validators, time of storing, immutability).
+ * Both are written by {@link AtomicFiles}, so nobody ever reads a half written entry.
+ * Reading an entry refreshes its modification time, which is used to remove the least recently used entries
+ * when the cache grows over its size limit.
+ */
+public class ResponseCache {
+    private static final Logger LOGGER = LogManager.getLogger(ResponseCache.class);
+    private static final String BODY_SUFFIX = ".json";
+    private static final String META_SUFFIX = ".properties";
+
+    private final Cache settings;
+    private final String username;
+    private final Path folder;
+    private final long maxSize;
+    private final AtomicLong size = new AtomicLong();
+
+    public ResponseCache(Cache settings, String username) {
+        this.settings = settings;
+        this.username = username;
+        this.folder = Path.of(settings.getFolder() != null
+                ? settings.getFolder()
+                : System.getProperty("user.home") + File.separator + ".jira-cli" + File.separator + "cache");
+        this.maxSize = settings.getMaxSizeMb() * 1024L * 1024L;
+        try {
+            Files.createDirectories(folder);
+            size.set(bodies().stream().mapToLong(ResponseCache::fileSize).sum());
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot initialize cache folder " + folder, e);
+        }
+    }
+
+    /**
+     * The body of the returned response can still be evicted by a concurrent {@link #put} before it is read,
+     * readers handle a missing body as a miss.
+     *
+     * @return cached response or {@code null} when the URI is not cached
+     */
+    public CachedResponse get(URI uri) {
+        String key = key(uri);
+        Path body = folder.resolve(key + BODY_SUFFIX);
+        Properties meta = readMeta(key);
+        if (meta == null || !Files.exists(body))
+            return null;
+
+        boolean immutable = Boolean.parseBoolean(meta.getProperty("immutable"));
+        long age = System.currentTimeMillis() - Long.parseLong(meta.getProperty("storedAt", "0"));
+        boolean fresh = immutable || age < ttl(Endpoint.of(uri)) * 1000;
+        touch(body);
+        return new CachedResponse(body, meta.getProperty("etag"), meta.getProperty("lastModified"), fresh);
+    }
+
+    /**
+     * Stores the response body and its validators.
+     *
+     * @return path to the stored body
+     */
+    public Path put(URI uri, InputStream content, String etag, String lastModified, boolean immutable) throws IOException {
+        String key = key(uri);
+        Path body = folder.resolve(key + BODY_SUFFIX);
+        long previousSize = Files.exists(body) ? fileSize(body) : 0;
+        AtomicFiles.write(body, content::transferTo);
+        size.addAndGet(fileSize(body) - previousSize);
+
+        Properties meta = new Properties();
+        meta.setProperty("uri", uri.toString());
+        if (etag != null)
+            meta.setProperty("etag", etag);
+        if (lastModified != null)
+            meta.setProperty("lastModified", lastModified);
+        writeMeta(key, meta, immutable);
+        evictIfNeeded(body);
+        return body;
+    }
+
+    /**
+     * Server confirmed that the cached response is still valid, the entry is fresh again.
+     */
+    public void revalidated(URI uri, boolean immutable) {
+        String key = key(uri);
+        Properties meta = readMeta(key);
+        if (meta != null)
+            writeMetaQuietly(key, meta, immutable || Boolean.parseBoolean(meta.getProperty("immutable")));
+    }
+
+    /**
+     * Marks cached response, which can never change any more (e.g. closed sprint), so it never expires.
+     */
+    public void markImmutable(URI uri) {
+        String key = key(uri);
+        Properties meta = readMeta(key);
+        if (meta != null && !Boolean.parseBoolean(meta.getProperty("immutable")))
+            writeMetaQuietly(key, meta, true);
+    }
+
+    private long ttl(Endpoint endpoint) {
+        return switch (endpoint) {
+            case BOARDS -> settings.getBoardsTtl();
+            case BOARD_SPRINTS -> settings.getBoardSprintsTtl();
+            case SPRINT -> settings.getSprintTtl();
+            case SPRINT_ISSUES -> settings.getSprintIssuesTtl();
+            case ISSUE -> settings.getIssueTtl();
+            case OTHER -> 0;
+        };
+    }
+
+    private String key(URI uri) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((username + "\n" + uri).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Properties readMeta(String key) {
+        Path metaFile = folder.resolve(key + META_SUFFIX);
+        if (!Files.exists(metaFile))
+            return null;
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaFile, StandardCharsets.UTF_8)) {
+            meta.load(reader);
+            return meta;
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read cache entry {}", metaFile, e);
+            return null;
+        }
+    }
+
+    private void writeMeta(String key, Properties meta, boolean immutable) throws IOException {
+        meta.setProperty("storedAt", String.valueOf(System.currentTimeMillis()));
+        meta.setProperty("immutable", String.valueOf(immutable));
+        AtomicFiles.write(folder.resolve(key + META_SUFFIX), out -> meta.store(new OutputStreamWriter(out, StandardCharsets.UTF_8), null));
+    }
+
+    private void writeMetaQuietly(String key, Properties meta, boolean immutable) {
+        try {
+            writeMeta(key, meta, immutable);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot update cache entry {}", key, e);
+        }
+    }
+
+    /**
+     * @param written body just stored, it is read right after and never evicted, even when it alone is over the limit
+     */
+    private synchronized void evictIfNeeded(Path written) throws IOException {
+        if (size.get() <= maxSize)
+            return;
+
+        // Times are read once, reads refresh them and the order must not change while sorting
+        List<Entry> entries = new ArrayList<>();
+        for (Path body : bodies()) {
+            entries.add(new Entry(body, lastModified(body), fileSize(body)));
+        }
+        // Oldest first, modification time is refreshed on every read
+        entries.sort(Comparator.comparing(Entry::lastModified));
+        long total = entries.stream().mapToLong(Entry::size).sum();
+        // Evict a bit more than necessary, so not every following write has to scan the folder again
+        long target = maxSize * 9 / 10;
+        for (Entry entry : entries) {
+            if (total <= target)
+                break;
+            if (entry.body().equals(written))
+                continue;
+            String fileName = entry.body().getFileName().toString();
+            Files.deleteIfExists(folder.resolve(fileName.substring(0, fileName.length() - BODY_SUFFIX.length()) + META_SUFFIX));
+            Files.deleteIfExists(entry.body());
+            total -= entry.size();
+        }
+        size.set(total);
+    }
+
+    private List<Path> bodies() throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(BODY_SUFFIX)).toList();
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.debug("Cannot touch cache entry {}", file, e);
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private record Entry(Path body, FileTime lastModified, long size) {
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.korecky.jiracli.http;
+
+import org.korecky.jiracli.configuration.RateLimit;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether and when a failed request is retried.
+ * <p>
+ * Delays grow exponentially and are fully jittered, so clients throttled at the same moment do not retry
+ * at the same moment again. Retries also draw from a budget refilled by every request: when most requests
+ * fail, retries stop early instead of multiplying the load of the server.
+ */
+public class RetryPolicy {
+    /**
+     * Retries always available, so a short outage of an idle client can be retried.
+     */
+    private static final double MIN_BUDGET = 10;
+    private static final double MAX_BUDGET = 100;
+
+    private final int maxRetries;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final double budgetPerRequest;
+    private final Random random;
+    private double budget = MIN_BUDGET;
+
+    public RetryPolicy(RateLimit rateLimit) {
+        this(rateLimit, null);
+    }
+
+    /**
+     * @param random source of the jitter, {@code null} for the thread local random
+     */
+    RetryPolicy(RateLimit rateLimit, Random random) {
+        this.maxRetries = Math.max(0, rateLimit.getMaxRetries());
+        this.initialBackoff = Math.max(1, rateLimit.getInitialBackoff());
+        this.maxBackoff = Math.max(initialBackoff, rateLimit.getMaxBackoff());
+        this.budgetPerRequest = Math.max(0, rateLimit.getRetryBudget());
+        this.random = random;
+    }
+
+    /**
+     * @return whether the status means the server is overloaded or throttling and the request may succeed later
+     */
+    public static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Records a request sent for the first time.
+     */
+    public synchronized void requested() {
+        budget = Math.min(MAX_BUDGET, budget + budgetPerRequest);
+    }
+
+    /**
+     * @param retry number of retries of the request done so far
+     * @return delay before the next retry in milliseconds, or -1 when the request must not be retried
+     */
+    public long retryDelay(int retry) {
+        if (retry >= maxRetries || !withdraw())
+            return -1;
+        long ceiling = Math.min(maxBackoff, initialBackoff << Math.min(retry, 20));
+        return (random != null ? random : ThreadLocalRandom.current()).nextLong(ceiling + 1);
+    }
+
+    private synchronized boolean withdraw() {
+        if (budget < 1)
+            return false;
+        budget -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package org.korecky.jiracli.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Flight recording of the whole run, to be opened in JDK Mission Control.
+ */
+public final class FlightRecording {
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Starts a recording with the JDK "profile" settings plus the events of this application.
+     * The file is written when the recording is stopped.
+     */
+    public static Recording start(Path file) throws IOException {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration("profile");
+        } catch (ParseException e) {
+            throw new IOException("Cannot read the JFR profile configuration", e);
+        }
+        Recording recording = new Recording(configuration);
+        recording.setName("jira-cli");
+        recording.setToDisk(true);
+        recording.setDestination(file);
+        recording.enable(HttpRequestEvent.class);
+        recording.enable(ParseEvent.class);
+        recording.enable(ReportStageEvent.class);
+        recording.start();
+        return recording;
+    }
+}
@@ -0,0 +1,39 @@
+package org.korecky.jiracli.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One GET request of {@code JiraClient}, from the cache lookup to the deserialized response, retries included.
+ */
+@Name("org.korecky.jiracli.HttpRequest")
+@Label("Jira Request")
+@Category({"Jira CLI", "HTTP"})
+public class HttpRequestEvent extends Event {
+    @Label("Endpoint")
+    @Description("URI template of the endpoint")
+    public String endpoint;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Status")
+    @Description("HTTP status of the last response, 0 when answered from the cache or failed without a response")
+    public int status;
+
+    @Label("Bytes")
+    @Description("Body bytes read from the server")
+    @DataAmount
+    public long bytes;
+
+    @Label("Cached")
+    @Description("Answered from the response cache without asking the server")
+    public boolean cached;
+
+    @Label("Retries")
+    public int retries;
+}
@@ -0,0 +1,20 @@
+package org.korecky.jiracli.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Deserialization of one response, e.g. a page of sprint issues.
+ */
+@Name("org.korecky.jiracli.Parse")
+@Label("Jira Response Parse")
+@Description("Includes reading the body from the network when it is parsed while streaming in")
+@Category({"Jira CLI", "JSON"})
+public class ParseEvent extends Event {
+    @Label("Type")
+    @Description("DTO the response is deserialized to")
+    public String type;
+}
@@ -0,0 +1,20 @@
+package org.korecky.jiracli.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One stage of a sprint report: loading issues, aggregation of a sheet or writing the report.
+ */
+@Name("org.korecky.jiracli.ReportStage")
+@Label("Report Stage")
+@Category({"Jira CLI", "Report"})
+public class ReportStageEvent extends Event {
+    @Label("Stage")
+    public String stage;
+
+    @Label("Sprint")
+    public String sprint;
+}
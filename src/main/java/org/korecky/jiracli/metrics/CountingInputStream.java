@@ -0,0 +1,54 @@
+package org.korecky.jiracli.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds the number of bytes read from the stream to a counter.
+ */
+public class CountingInputStream extends FilterInputStream {
+    private final LongAdder counter;
+    private long count;
+
+    public CountingInputStream(InputStream in, LongAdder counter) {
+        super(in);
+        this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0) {
+            counter.increment();
+            count++;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            counter.add(read);
+            count += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        counter.add(skipped);
+        count += skipped;
+        return skipped;
+    }
+
+    /**
+     * @return bytes read from this stream, the shared counter may include other streams too
+     */
+    public long getCount() {
+        return count;
+    }
+}
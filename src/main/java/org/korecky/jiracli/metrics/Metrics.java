@@ -0,0 +1,73 @@
+package org.korecky.jiracli.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.korecky.jiracli.AtomicFiles;
+import org.korecky.jiracli.http.Endpoint;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where a run spends its time: requests per endpoint, parse time per DTO type and duration of report stages.
+ * <p>
+ * All counters are lock-free, the per endpoint metrics exist from the start and the others are created
+ * on first use, so recording costs a few atomic operations also with many parallel requests.
+ */
+public class Metrics {
+    private final Map<Endpoint, RequestMetrics> requests = new EnumMap<>(Endpoint.class);
+    private final Map<String, Histogram> parse = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> stages = new ConcurrentHashMap<>();
+
+    public Metrics() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            requests.put(endpoint, new RequestMetrics());
+        }
+    }
+
+    public RequestMetrics request(Endpoint endpoint) {
+        return requests.get(endpoint);
+    }
+
+    /**
+     * @return parse time of responses deserialized to the type
+     */
+    public Histogram parse(Class<?> type) {
+        return parse.computeIfAbsent(type.getSimpleName(), name -> new Histogram());
+    }
+
+    /**
+     * @return duration of a report stage, e.g. aggregation of one sheet
+     */
+    public Histogram stage(String name) {
+        return stages.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    public ObjectNode toJson(ObjectMapper objectMapper) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode requestsNode = root.putObject("requests");
+        requests.forEach((endpoint, metrics) -> {
+            if (!metrics.isEmpty())
+                metrics.writeTo(requestsNode.putObject(endpoint.getTemplate()));
+        });
+        ObjectNode parseNode = root.putObject("parse");
+        new TreeMap<>(parse).forEach((type, histogram) -> histogram.writeTo(parseNode.putObject(type)));
+        ObjectNode stagesNode = root.putObject("stages");
+        new TreeMap<>(stages).forEach((name, histogram) -> histogram.writeTo(stagesNode.putObject(name)));
+        return root;
+    }
+
+    /**
+     * Writes the summary as JSON, replacing the file at once.
+     */
+    public void write(Path file) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode json = toJson(objectMapper);
+        AtomicFiles.write(file, out -> objectMapper.writeValue(out, json));
+    }
+}
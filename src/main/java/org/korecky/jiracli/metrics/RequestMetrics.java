@@ -0,0 +1,53 @@
+package org.korecky.jiracli.metrics;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Requests of one endpoint. Latency is measured until the response headers arrive, reading of the body
+ * is part of the parse time of its DTO, because the body is parsed while it streams in.
+ */
+public class RequestMetrics {
+    private final Histogram latency = new Histogram();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Counts the body bytes read from the server.
+     */
+    public LongAdder getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Response other than 200 or 304, retried ones included.
+     */
+    public void error() {
+        errors.increment();
+    }
+
+    /**
+     * Response taken from the cache without asking the server.
+     */
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    boolean isEmpty() {
+        return latency.getCount() == 0 && cacheHits.sum() == 0;
+    }
+
+    ObjectNode writeTo(ObjectNode node) {
+        latency.writeTo(node.putObject("latency"));
+        node.put("bytes", bytes.sum());
+        node.put("errors", errors.sum());
+        node.put("cacheHits", cacheHits.sum());
+        return node;
+    }
+}
@@ -0,0 +1,64 @@
+package org.korecky.jiracli.report;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON pointer compiled to the property names it follows.
+ * <p>
+ * Resolving it is one hash lookup per property, no string is parsed or allocated per issue.
+ */
+public class FieldPath {
+    private final String pointer;
+    private final String[] properties;
+
+    private FieldPath(String pointer, String[] properties) {
+        this.pointer = pointer;
+        this.properties = properties;
+    }
+
+    /**
+     * @param pointer JSON pointer, for example "/status/statusCategory/name"
+     */
+    public static FieldPath compile(String pointer) {
+        List<String> properties = new ArrayList<>();
+        for (JsonPointer segment = JsonPointer.compile(pointer); !segment.matches(); segment = segment.tail()) {
+            if (!segment.mayMatchProperty())
+                throw new IllegalArgumentException("Field path " + pointer + " has to consist of property names");
+            properties.add(segment.getMatchingProperty());
+        }
+        return new FieldPath(pointer, properties.toArray(new String[0]));
+    }
+
+    /**
+     * Builds the path from property names, characters with a special meaning in JSON pointers are escaped.
+     */
+    public static FieldPath of(String... properties) {
+        JsonPointer pointer = JsonPointer.empty();
+        for (String property : properties) {
+            pointer = pointer.appendProperty(property);
+        }
+        return new FieldPath(pointer.toString(), properties.clone());
+    }
+
+    /**
+     * @return the node at this path, {@link MissingNode} when any property on the path is absent
+     */
+    public JsonNode resolve(JsonNode node) {
+        for (String property : properties) {
+            node = node.get(property);
+            if (node == null)
+                return MissingNode.getInstance();
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return pointer;
+    }
+}
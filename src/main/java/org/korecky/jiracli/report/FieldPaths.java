@@ -0,0 +1,33 @@
+package org.korecky.jiracli.report;
+
+/**
+ * Exact paths of the issue fields read by the reports, compiled once.
+ * <p>
+ * Paths are relative to the {@code fields} object of an issue. Unlike {@code JsonNode.findValue}, resolving
+ * a path only follows its own properties, so it never picks up a field with the same name nested somewhere
+ * else, for example the status of a linked issue, and it does not search the whole issue when a field is absent.
+ */
+public class FieldPaths {
+    public static final FieldPath EPIC = FieldPath.compile("/epic");
+    public static final FieldPath EPIC_SUMMARY = FieldPath.compile("/epic/summary");
+    public static final FieldPath STATUS_CATEGORY_NAME = FieldPath.compile("/status/statusCategory/name");
+    public static final FieldPath SPRINT_ID = FieldPath.compile("/sprint/id");
+    public static final FieldPath CLOSED_SPRINTS = FieldPath.compile("/closedSprints");
+    /**
+     * Id of a sprint in {@link #CLOSED_SPRINTS}.
+     */
+    public static final FieldPath ID = FieldPath.compile("/id");
+
+    private final FieldPath storyPoints;
+
+    /**
+     * @param storyPointsColumn custom field holding story points, for example "customfield_10106"
+     */
+    public FieldPaths(String storyPointsColumn) {
+        this.storyPoints = FieldPath.of(storyPointsColumn);
+    }
+
+    public FieldPath getStoryPoints() {
+        return storyPoints;
+    }
+}
@@ -0,0 +1,116 @@
+package org.korecky.jiracli.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facts the report sheets need about sprint issues, extracted once per issue.
+ * <p>
+ * The table is stored column by column: story points in a primitive array, flags in a bit set and repeated
+ * texts (epic, team) as ids into dictionaries. Dictionary ids are given in the order the values were
+ * first seen, so sheets iterating them are ordered by the first issue of each epic or team.
+ */
+public class IssueFacts {
+    private final Dictionary epics = new Dictionary();
+    private final Dictionary teams = new Dictionary();
+
+    private double[] storyPoints;
+    private int[] epicIds;
+    private int[] teamIds;
+    private final BitSet closedInSprint = new BitSet();
+    private int size;
+
+    public IssueFacts(int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        storyPoints = new double[capacity];
+        epicIds = new int[capacity];
+        teamIds = new int[capacity];
+    }
+
+    /**
+     * Appends one issue.
+     */
+    public void add(String epicName, String team, double issueStoryPoints, boolean isClosedInSprint) {
+        if (size == storyPoints.length)
+            grow();
+
+        storyPoints[size] = issueStoryPoints;
+        epicIds[size] = epics.idOf(epicName);
+        teamIds[size] = teams.idOf(team);
+        closedInSprint.set(size, isClosedInSprint);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getStoryPoints(int issue) {
+        return storyPoints[issue];
+    }
+
+    public boolean isClosedInSprint(int issue) {
+        return closedInSprint.get(issue);
+    }
+
+    public int getEpicId(int issue) {
+        return epicIds[issue];
+    }
+
+    public int getTeamId(int issue) {
+        return teamIds[issue];
+    }
+
+    public int getEpicCount() {
+        return epics.size();
+    }
+
+    public String getEpicName(int epicId) {
+        return epics.valueOf(epicId);
+    }
+
+    public int getTeamCount() {
+        return teams.size();
+    }
+
+    public String getTeamName(int teamId) {
+        return teams.valueOf(teamId);
+    }
+
+    private void grow() {
+        int capacity = storyPoints.length * 2;
+        storyPoints = Arrays.copyOf(storyPoints, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        teamIds = Arrays.copyOf(teamIds, capacity);
+    }
+
+    /**
+     * Maps each distinct text to a small id.
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int idOf(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        String valueOf(int id) {
+            return values.get(id);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.korecky.jiracli.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.korecky.jiracli.dto.Sprint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Planned and finished story points of one sprint, in total and per team.
+ */
+@Data
+@AllArgsConstructor
+public class SprintVelocity {
+    private Sprint sprint;
+    private Work total;
+    /**
+     * Teams with estimated issues, in the order of their first issue.
+     */
+    private Map<String, Work> teams;
+
+    /**
+     * Sums story points of estimated issues, the finished ones are those closed in the sprint.
+     */
+    public static SprintVelocity of(Sprint sprint, IssueFacts facts) {
+        Work total = new Work();
+        Work[] teams = new Work[facts.getTeamCount()];
+        for (int issue = 0; issue < facts.size(); issue++) {
+            double storyPoints = facts.getStoryPoints(issue);
+            if (storyPoints > 0) {
+                int teamId = facts.getTeamId(issue);
+                if (teams[teamId] == null)
+                    teams[teamId] = new Work();
+                Work work = teams[teamId];
+                total.setPlanned(total.getPlanned() + storyPoints);
+                work.setPlanned(work.getPlanned() + storyPoints);
+                if (facts.isClosedInSprint(issue)) {
+                    total.setFinished(total.getFinished() + storyPoints);
+                    work.setFinished(work.getFinished() + storyPoints);
+                }
+            }
+        }
+
+        Map<String, Work> teamsByName = new LinkedHashMap<>();
+        for (int teamId = 0; teamId < teams.length; teamId++) {
+            if (teams[teamId] != null)
+                teamsByName.put(facts.getTeamName(teamId), teams[teamId]);
+        }
+        return new SprintVelocity(sprint, total, teamsByName);
+    }
+}
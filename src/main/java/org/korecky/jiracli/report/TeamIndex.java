@@ -0,0 +1,71 @@
+package org.korecky.jiracli.report;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.korecky.jiracli.configuration.Team;
+import org.korecky.jiracli.dto.Assignee;
+import org.korecky.jiracli.dto.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves the team of an issue from its assignee or components in constant time.
+ * <p>
+ * Member e-mails are compared ignoring case, component names exactly. When a person or a component belongs
+ * to several teams, the team listed first in the configuration wins and a warning is logged while the index
+ * is built.
+ */
+public class TeamIndex {
+    public static final String UNKNOWN_TEAM = "Unknown";
+    private static final Logger LOGGER = LogManager.getLogger(TeamIndex.class);
+
+    private final Map<String, String> teamsByMember = new HashMap<>();
+    private final Map<String, String> teamsByComponent = new HashMap<>();
+
+    public TeamIndex(List<Team> teams) {
+        if (teams == null)
+            return;
+        for (Team team : teams) {
+            if (team.getMembers() != null) {
+                for (String member : team.getMembers()) {
+                    add(teamsByMember, normalizeEmail(member), team.getName(), "Member");
+                }
+            }
+            if (team.getComponents() != null) {
+                for (String component : team.getComponents()) {
+                    add(teamsByComponent, component, team.getName(), "Component");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return team of the assignee, or for unassigned issues team of the first component which has one
+     */
+    public String getTeam(Assignee assignee, List<Component> components) {
+        if (assignee != null)
+            return teamsByMember.getOrDefault(normalizeEmail(assignee.getEmailAddress()), UNKNOWN_TEAM);
+
+        if (components != null) {
+            for (Component component : components) {
+                String team = teamsByComponent.get(component.getName());
+                if (team != null)
+                    return team;
+            }
+        }
+        return UNKNOWN_TEAM;
+    }
+
+    private static void add(Map<String, String> index, String key, String teamName, String kind) {
+        String existingTeam = index.putIfAbsent(key, teamName);
+        if (existingTeam != null && !existingTeam.equals(teamName))
+            LOGGER.warn("{} {} is in teams {} and {}, counted for {}", kind, key, existingTeam, teamName, existingTeam);
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,121 @@
+package org.korecky.jiracli.sink;
+
+import org.korecky.jiracli.AtomicFiles;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV file per sheet, named {@code <report> <sheet>.csv}. Numbers are written as plain decimals.
+ * Rows go to a temporary file next to the target as they are written, committing moves the files in place.
+ */
+class CsvSink implements ReportSink {
+    private final Path folder;
+    private final String name;
+    private final List<CsvSheetWriter> sheets = new ArrayList<>();
+
+    CsvSink(Path folder, String name) {
+        this.folder = folder;
+        this.name = name;
+    }
+
+    @Override
+    public SheetWriter createSheet(String sheetName, List<String> columns) throws IOException {
+        Path file = folder.resolve(name + " " + sheetName.trim() + ".csv");
+        Files.createDirectories(folder);
+        Path tempFile = Files.createTempFile(folder, file.getFileName().toString(), ".tmp");
+        CsvSheetWriter sheet = new CsvSheetWriter(file, tempFile, Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8));
+        sheets.add(sheet);
+        for (String column : columns) {
+            sheet.text(column);
+        }
+        sheet.endRow();
+        return sheet;
+    }
+
+    @Override
+    public void commit() throws IOException {
+        for (CsvSheetWriter sheet : sheets) {
+            sheet.writer.close();
+        }
+        for (CsvSheetWriter sheet : sheets) {
+            AtomicFiles.move(sheet.tempFile, sheet.file);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (CsvSheetWriter sheet : sheets) {
+            sheet.writer.close();
+            Files.deleteIfExists(sheet.tempFile);
+        }
+    }
+
+    static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Plain decimal without exponent and trailing zeros, e.g. 10000000 instead of 1.0E7, which spreadsheet
+     * applications of some locales would not read as a number.
+     */
+    static String format(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            return Double.toString(value);
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static class CsvSheetWriter implements SheetWriter {
+        private final Path file;
+        private final Path tempFile;
+        private final Writer writer;
+        private boolean firstCell = true;
+
+        CsvSheetWriter(Path file, Path tempFile, Writer writer) {
+            this.file = file;
+            this.tempFile = tempFile;
+            this.writer = writer;
+        }
+
+        @Override
+        public SheetWriter text(String value) throws IOException {
+            separator();
+            if (value != null)
+                writer.write(escape(value));
+            return this;
+        }
+
+        @Override
+        public SheetWriter number(double value) throws IOException {
+            separator();
+            writer.write(format(value));
+            return this;
+        }
+
+        @Override
+        public SheetWriter blank() throws IOException {
+            separator();
+            return this;
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            writer.write("\r\n");
+            firstCell = true;
+        }
+
+        private void separator() throws IOException {
+            if (!firstCell)
+                writer.write(',');
+            firstCell = false;
+        }
+    }
+}
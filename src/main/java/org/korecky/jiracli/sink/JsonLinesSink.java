@@ -0,0 +1,121 @@
+package org.korecky.jiracli.sink;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.korecky.jiracli.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JSON lines file with the rows of all sheets, e.g. {@code {"sheet":"VelocityOfTeams","Sprint":"NEO 42","Total":21.0}}.
+ * Empty cells are left out. Rows go to a temporary file next to the target as they are written.
+ * <p>
+ * Keys of a row are unique: a column named like the {@code "sheet"} key or like a previous column, e.g. a team
+ * called "Total", gets the suffix " (2)", " (3)" and so on.
+ */
+class JsonLinesSink implements ReportSink {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String SHEET_KEY = "sheet";
+
+    private final Path file;
+    private final Path tempFile;
+    private final JsonGenerator generator;
+
+    JsonLinesSink(Path file) throws IOException {
+        this.file = file;
+        Path folder = file.toAbsolutePath().getParent();
+        Files.createDirectories(folder);
+        this.tempFile = Files.createTempFile(folder, file.getFileName().toString(), ".tmp");
+        this.generator = JSON_FACTORY.createGenerator(Files.newOutputStream(tempFile));
+        // Rows are separated by new lines only
+        generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public SheetWriter createSheet(String name, List<String> columns) {
+        return new JsonSheetWriter(name.trim(), uniqueKeys(columns));
+    }
+
+    static List<String> uniqueKeys(List<String> columns) {
+        Set<String> keys = new HashSet<>();
+        keys.add(SHEET_KEY);
+        List<String> uniqueKeys = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            String key = column;
+            for (int number = 2; !keys.add(key); number++) {
+                key = column + " (" + number + ")";
+            }
+            uniqueKeys.add(key);
+        }
+        return uniqueKeys;
+    }
+
+    @Override
+    public void commit() throws IOException {
+        generator.close();
+        AtomicFiles.move(tempFile, file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+        Files.deleteIfExists(tempFile);
+    }
+
+    private class JsonSheetWriter implements SheetWriter {
+        private final String name;
+        private final List<String> columns;
+        private int columnIndex;
+
+        JsonSheetWriter(String name, List<String> columns) {
+            this.name = name;
+            this.columns = columns;
+        }
+
+        @Override
+        public SheetWriter text(String value) throws IOException {
+            generator.writeStringField(column(), value);
+            return this;
+        }
+
+        @Override
+        public SheetWriter number(double value) throws IOException {
+            generator.writeNumberField(column(), value);
+            return this;
+        }
+
+        @Override
+        public SheetWriter blank() throws IOException {
+            column();
+            return this;
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            if (columnIndex == 0)
+                startRow();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            columnIndex = 0;
+        }
+
+        private String column() throws IOException {
+            if (columnIndex >= columns.size())
+                throw new IllegalStateException("Sheet " + name + " has only " + columns.size() + " columns");
+            if (columnIndex == 0)
+                startRow();
+            return columns.get(columnIndex++);
+        }
+
+        private void startRow() throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField(SHEET_KEY, name);
+        }
+    }
+}
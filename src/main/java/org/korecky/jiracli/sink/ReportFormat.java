@@ -0,0 +1,59 @@
+package org.korecky.jiracli.sink;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import org.korecky.jiracli.configuration.Output;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Format of the generated reports.
+ * <p>
+ * Only {@link #XLSX} needs Apache POI. Its classes are loaded when the first XLSX sink is opened,
+ * so runs writing CSV or JSON lines do not pay for loading and initialising them.
+ */
+public enum ReportFormat {
+    /**
+     * Streamed Excel workbook {@code <name>.xlsx}, one sheet per report sheet.
+     */
+    XLSX {
+        @Override
+        public ReportSink open(Path folder, String name, Output output) {
+            return new XlsxSink(folder.resolve(name + ".xlsx"), output);
+        }
+    },
+    /**
+     * One {@code <name> <sheet>.csv} file per report sheet.
+     */
+    CSV {
+        @Override
+        public ReportSink open(Path folder, String name, Output output) {
+            return new CsvSink(folder, name);
+        }
+    },
+    /**
+     * Single {@code <name>.jsonl} file, one JSON object per row with the sheet name and the cells by column.
+     */
+    JSONL {
+        @Override
+        public ReportSink open(Path folder, String name, Output output) throws IOException {
+            return new JsonLinesSink(folder.resolve(name + ".jsonl"));
+        }
+    };
+
+    /**
+     * Opens an empty report, the output folder is created when missing.
+     *
+     * @param name file name of the report without the extension
+     */
+    public abstract ReportSink open(Path folder, String name, Output output) throws IOException;
+
+    /**
+     * @param name format name ignoring case, e.g. "csv"
+     */
+    @JsonCreator
+    public static ReportFormat of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,27 @@
+package org.korecky.jiracli.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Output of one report, e.g. an XLSX workbook or CSV files. Sheets are written row by row and rows are not kept
+ * in memory once they were written.
+ * <p>
+ * Nothing appears in the output folder before {@link #commit()}, closing a sink which was not committed
+ * discards everything written to it.
+ */
+public interface ReportSink extends Closeable {
+
+    /**
+     * Adds a sheet and writes its header.
+     *
+     * @param columns names of the columns, rows of the sheet can not have more cells
+     */
+    SheetWriter createSheet(String name, List<String> columns) throws IOException;
+
+    /**
+     * Publishes the report, files replace the previous report of the same name atomically.
+     */
+    void commit() throws IOException;
+}
@@ -0,0 +1,21 @@
+package org.korecky.jiracli.sink;
+
+import java.io.IOException;
+
+/**
+ * Writes rows of one sheet, cells of a row from the left to the right.
+ * A row has to be ended before a row of another sheet of the same sink is started.
+ */
+public interface SheetWriter {
+
+    SheetWriter text(String value) throws IOException;
+
+    SheetWriter number(double value) throws IOException;
+
+    /**
+     * Skips the cell, it stays empty.
+     */
+    SheetWriter blank() throws IOException;
+
+    void endRow() throws IOException;
+}
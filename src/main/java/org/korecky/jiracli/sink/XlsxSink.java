@@ -0,0 +1,110 @@
+package org.korecky.jiracli.sink;
+
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.korecky.jiracli.AtomicFiles;
+import org.korecky.jiracli.configuration.Output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Streamed XLSX workbook. Only the last rows of each sheet are kept in memory, older rows are flushed
+ * to temporary files which are deleted when the sink is closed, also when the report failed.
+ */
+class XlsxSink implements ReportSink {
+    /**
+     * Folder of the temporary files POI was last told to use. The strategy is global to the JVM, so it is
+     * replaced only when another folder is configured, not by every report.
+     */
+    private static String tempFolder;
+
+    private final Path file;
+    private final SXSSFWorkbook workbook;
+
+    XlsxSink(Path file, Output output) {
+        this.file = file;
+        useTempFolder(output.getTempFolder());
+        this.workbook = new SXSSFWorkbook(null, output.getRowWindow(), output.isCompressTempFiles(), output.isSharedStrings());
+    }
+
+    private static synchronized void useTempFolder(String folder) {
+        if (folder == null || folder.equals(tempFolder))
+            return;
+        TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy(new File(folder)));
+        tempFolder = folder;
+    }
+
+    @Override
+    public SheetWriter createSheet(String name, List<String> columns) throws IOException {
+        XlsxSheetWriter sheet = new XlsxSheetWriter(workbook.createSheet(name));
+        for (String column : columns) {
+            sheet.text(column);
+        }
+        sheet.endRow();
+        return sheet;
+    }
+
+    @Override
+    public void commit() throws IOException {
+        AtomicFiles.write(file, workbook::write);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.close();
+        } finally {
+            // Closing the workbook does not delete the temporary sheet files
+            workbook.dispose();
+        }
+    }
+
+    private static class XlsxSheetWriter implements SheetWriter {
+        private final SXSSFSheet sheet;
+        private int rowIndex;
+        private int columnIndex;
+        private SXSSFRow row;
+
+        XlsxSheetWriter(SXSSFSheet sheet) {
+            this.sheet = sheet;
+        }
+
+        @Override
+        public SheetWriter text(String value) {
+            row().createCell(columnIndex++).setCellValue(value);
+            return this;
+        }
+
+        @Override
+        public SheetWriter number(double value) {
+            row().createCell(columnIndex++).setCellValue(value);
+            return this;
+        }
+
+        @Override
+        public SheetWriter blank() {
+            columnIndex++;
+            return this;
+        }
+
+        @Override
+        public void endRow() {
+            row();
+            row = null;
+            rowIndex++;
+            columnIndex = 0;
+        }
+
+        private SXSSFRow row() {
+            if (row == null)
+                row = sheet.createRow(rowIndex);
+            return row;
+        }
+    }
+}
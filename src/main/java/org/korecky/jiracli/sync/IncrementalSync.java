@@ -0,0 +1,152 @@
+package org.korecky.jiracli.sync;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.korecky.jiracli.AtomicFiles;
+import org.korecky.jiracli.FieldProjection;
+import org.korecky.jiracli.JiraClient;
+import org.korecky.jiracli.dto.Issue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a local snapshot of sprint issues and refreshes it with only the issues updated since the previous run.
+ * Issues removed from the sprint are dropped by comparing the snapshot with the current set of issue keys.
+ * Snapshots of every server and user are kept in their own subfolder, sprint ids of different Jira instances
+ * do not meet.
+ */
+public class IncrementalSync {
+    private static final Logger LOGGER = LogManager.getLogger(IncrementalSync.class);
+    /**
+     * Updates made right around the previous synchronization must not be missed, so the window is extended a bit.
+     */
+    private static final long OVERLAP_MINUTES = 5;
+
+    private final JiraClient jiraClient;
+    private final Path folder;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param folder folder with snapshots, "{YOUR_HOME_FOLDER}/.jira-cli/snapshots" when {@code null}
+     * @see JiraClient#getAccountKey()
+     */
+    public IncrementalSync(JiraClient jiraClient, String folder) {
+        this.jiraClient = jiraClient;
+        this.folder = Path.of(folder != null
+                ? folder
+                : System.getProperty("user.home") + File.separator + ".jira-cli" + File.separator + "snapshots")
+                .resolve(jiraClient.getAccountKey());
+        this.objectMapper = JiraClient.createObjectMapper();
+    }
+
+    /**
+     * Loads issues of the sprint. The first call downloads all of them, later calls only the changes.
+     */
+    public List<Issue> getSprintIssues(int sprintId, int maxResultsPerPage, FieldProjection projection) throws IOException {
+        long syncStartedAt = System.currentTimeMillis();
+        Set<String> fields = projection.isAllFields() ? Set.of() : new TreeSet<>(projection.getFields());
+        SprintSnapshot snapshot = load(sprintId);
+
+        List<Issue> issues = null;
+        if (snapshot != null && fields.equals(snapshot.getFields())) {
+            issues = merge(snapshot, sprintId, maxResultsPerPage, projection, syncStartedAt);
+        }
+        if (issues == null) {
+            System.out.println("Downloading all issues of sprint " + sprintId);
+            issues = jiraClient.getSprintIssues(sprintId, maxResultsPerPage, projection);
+        }
+
+        save(SprintSnapshot.builder()
+                .sprintId(sprintId)
+                .syncedAt(syncStartedAt)
+                .fields(fields)
+                .issues(issues)
+                .build());
+        return issues;
+    }
+
+    /**
+     * Loads issues of a closed sprint. They do not change any more, so once downloaded they are read from
+     * the snapshot without asking the server, also when the response cache is disabled.
+     */
+    public List<Issue> getClosedSprintIssues(int sprintId, int maxResultsPerPage, FieldProjection projection) throws IOException {
+        long syncStartedAt = System.currentTimeMillis();
+        Set<String> fields = projection.isAllFields() ? Set.of() : new TreeSet<>(projection.getFields());
+        SprintSnapshot snapshot = load(sprintId);
+        if (snapshot != null && snapshot.isClosed() && fields.equals(snapshot.getFields()))
+            return snapshot.getIssues();
+
+        List<Issue> issues = jiraClient.getSprintIssues(sprintId, maxResultsPerPage, projection);
+        save(SprintSnapshot.builder()
+                .sprintId(sprintId)
+                .syncedAt(syncStartedAt)
+                .fields(fields)
+                .closed(true)
+                .issues(issues)
+                .build());
+        return issues;
+    }
+
+    /**
+     * @return issues of the snapshot updated with the changes, or {@code null} when the snapshot cannot be updated
+     */
+    private List<Issue> merge(SprintSnapshot snapshot, int sprintId, int maxResultsPerPage, FieldProjection projection, long syncStartedAt) throws IOException {
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(syncStartedAt - snapshot.getSyncedAt()) + 1 + OVERLAP_MINUTES;
+        List<Issue> updatedIssues = jiraClient.getSprintIssuesUpdatedSince(sprintId, maxResultsPerPage, projection, minutes);
+        Set<String> currentKeys = jiraClient.getSprintIssueKeys(sprintId, maxResultsPerPage);
+
+        Map<String, Issue> knownIssues = new LinkedHashMap<>();
+        for (Issue issue : snapshot.getIssues()) {
+            knownIssues.put(issue.getKey(), issue);
+        }
+        for (Issue issue : updatedIssues) {
+            knownIssues.put(issue.getKey(), issue);
+        }
+
+        // Current keys are in server order, issues missing in them were removed from the sprint
+        List<Issue> issues = new ArrayList<>(currentKeys.size());
+        for (String key : currentKeys) {
+            Issue issue = knownIssues.get(key);
+            if (issue == null) {
+                LOGGER.warn("Issue {} of sprint {} is not in the snapshot, downloading the whole sprint again", key, sprintId);
+                return null;
+            }
+            issues.add(issue);
+        }
+        System.out.println("Sprint " + sprintId + ": " + updatedIssues.size() + " updated issue(s), "
+                + (knownIssues.size() - issues.size()) + " removed issue(s)");
+        return issues;
+    }
+
+    private Path snapshotFile(int sprintId) {
+        return folder.resolve("sprint-" + sprintId + ".json");
+    }
+
+    private SprintSnapshot load(int sprintId) {
+        Path file = snapshotFile(sprintId);
+        if (!Files.exists(file))
+            return null;
+        try (InputStream in = Files.newInputStream(file)) {
+            return objectMapper.readValue(in, SprintSnapshot.class);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read snapshot {}, it will be downloaded again", file, e);
+            return null;
+        }
+    }
+
+    private void save(SprintSnapshot snapshot) throws IOException {
+        AtomicFiles.write(snapshotFile(snapshot.getSprintId()), out -> objectMapper.writeValue(out, snapshot));
+    }
+}
@@ -0,0 +1,34 @@
+package org.korecky.jiracli.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.korecky.jiracli.dto.Issue;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Local copy of sprint issues stored by {@link IncrementalSync}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SprintSnapshot {
+    private int sprintId;
+    /**
+     * Start of the synchronization which produced this snapshot, in epoch milliseconds.
+     */
+    private long syncedAt;
+    /**
+     * Issue fields stored in the snapshot, empty for all fields.
+     */
+    private Set<String> fields;
+    /**
+     * Taken after the sprint was closed, so the issues never change any more.
+     */
+    private boolean closed;
+    private List<Issue> issues;
+}
@@ -0,0 +1,122 @@
+package org.korecky.jiracli;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.korecky.jiracli.configuration.Batch;
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.fake.FakeJiraServer;
+import org.korecky.jiracli.fake.FakeJiraSettings;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link BatchReports} against {@link FakeJiraServer}, the reports are written as JSON lines.
+ */
+public class BatchReportsTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private Path outputFolder;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        outputFolder = TempFolders.create("batch-reports-test");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        TempFolders.delete(outputFolder);
+    }
+
+    @Test
+    public void reportsOfSprintIds() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(4).issuesPerSprint(30).build())) {
+            generate(server, Batch.builder().sprintIds(List.of(1000, 2001)).build());
+
+            Assert.assertEquals(reportFiles(), List.of("NEO Sprint 1 (1000).jsonl", "Platform Sprint 2 (2001).jsonl"));
+        }
+    }
+
+    @Test
+    public void reportsOfBoardSprintsInStates() throws Exception {
+        // Sprints 1000 and 1001 are closed, 1002 active and 1003 future
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(4).issuesPerSprint(30).build())) {
+            generate(server, Batch.builder().boardId(1).state("active,future").build());
+
+            Assert.assertEquals(reportFiles(), List.of("NEO Sprint 3 (1002).jsonl", "NEO Sprint 4 (1003).jsonl"));
+        }
+    }
+
+    @Test
+    public void futureSprintWithoutDatesIsReported() throws Exception {
+        // Sprint 1003 is future, Jira sends it without start and end date
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(4).issuesPerSprint(30).build())) {
+            generate(server, Batch.builder().boardId(1).state("future").build());
+
+            Assert.assertEquals(reportFiles(), List.of("NEO Sprint 4 (1003).jsonl"));
+            List<Map<String, Object>> velocityRows = new ArrayList<>();
+            for (String line : Files.readAllLines(outputFolder.resolve("NEO Sprint 4 (1003).jsonl"))) {
+                Map<String, Object> row = OBJECT_MAPPER.readValue(line, new TypeReference<>() {
+                });
+                if (row.get("sheet").equals("VelocityOfTeams"))
+                    velocityRows.add(row);
+            }
+            Assert.assertEquals(velocityRows.size(), 2);
+            for (Map<String, Object> row : velocityRows) {
+                Assert.assertFalse(row.containsKey("From"), row.toString());
+                Assert.assertFalse(row.containsKey("To"), row.toString());
+                Assert.assertTrue(row.containsKey("Total"), row.toString());
+            }
+        }
+    }
+
+    @Test
+    public void failedReportDoesNotStopTheOthers() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(4).issuesPerSprint(30)
+                .failingSprints(Set.of(1001)).build())) {
+            RuntimeException failure = Assert.expectThrows(RuntimeException.class,
+                    () -> generate(server, Batch.builder().sprintIds(List.of(1000, 1001, 1002)).parallelism(2).build()));
+
+            Assert.assertEquals(failure.getMessage(), "Reports of sprints [1001] failed");
+            Assert.assertEquals(reportFiles(), List.of("NEO Sprint 1 (1000).jsonl", "NEO Sprint 3 (1002).jsonl"));
+        }
+    }
+
+    @Test
+    public void missingSprintDoesNotStopTheOthers() throws Exception {
+        // Board 1 has sprints 1000 to 1003 only
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(4).issuesPerSprint(30)
+                .failingSprints(Set.of(1001)).build())) {
+            RuntimeException failure = Assert.expectThrows(RuntimeException.class,
+                    () -> generate(server, Batch.builder().sprintIds(List.of(1000, 1009, 1001, 1002)).parallelism(2).build()));
+
+            Assert.assertEquals(failure.getMessage(), "Reports of sprints [1009, 1001] failed");
+            Assert.assertEquals(reportFiles(), List.of("NEO Sprint 1 (1000).jsonl", "NEO Sprint 3 (1002).jsonl"));
+        }
+    }
+
+    private void generate(FakeJiraServer server, Batch batch) throws IOException {
+        Configuration configuration = server.reportConfiguration(outputFolder)
+                .batch(batch)
+                .build();
+        try (JiraClient jiraClient = new JiraClient(configuration.getServer())) {
+            new BatchReports(configuration, jiraClient).generate();
+        }
+    }
+
+    private List<String> reportFiles() throws IOException {
+        try (Stream<Path> files = Files.list(outputFolder)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+}
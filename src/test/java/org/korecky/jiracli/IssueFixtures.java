@@ -0,0 +1,260 @@
+package org.korecky.jiracli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.korecky.jiracli.configuration.Team;
+import org.korecky.jiracli.dto.Issue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates realistic sprint issue payloads for benchmarks and the fake Jira server.
+ * The same seed always produces the same data.
+ */
+public final class IssueFixtures {
+    public static final String STORY_POINTS_COLUMN = "customfield_10106";
+    public static final int SPRINT_ID = 471;
+
+    private static final String[] STATUS_CATEGORIES = {"To Do", "In Progress", "Done"};
+    private static final String[] COMPONENTS = {"Backend", "Frontend", "Reporting", "Billing", "Platform"};
+    private static final int USERS = 2_000;
+    private static final int MIN_DESCRIPTION_LENGTH = 200;
+    /**
+     * Random descriptions are up to this number of characters longer than the minimum.
+     */
+    private static final int DESCRIPTION_LENGTH_SPREAD = 2_000;
+    private static final String[] LABELS = {"reporting-ui", "tech-debt", "customer", "security", "performance"};
+
+    private final ObjectMapper objectMapper = JiraClient.createObjectMapper();
+    private final Random random;
+    /**
+     * Length of issue descriptions, 0 for random lengths between 200 and 2200 characters.
+     */
+    private int descriptionLength;
+
+    public IssueFixtures(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public IssueFixtures withDescriptionLength(int descriptionLength) {
+        this.descriptionLength = descriptionLength;
+        return this;
+    }
+
+    /**
+     * @return one page of the /rest/agile/1.0/sprint/{id}/issue response
+     */
+    public ObjectNode sprintIssuesPage(int startAt, int pageSize, int total) {
+        ObjectNode page = objectMapper.createObjectNode();
+        page.put("expand", "schema,names");
+        page.put("startAt", startAt);
+        page.put("maxResults", pageSize);
+        page.put("total", total);
+        ArrayNode issues = page.putArray("issues");
+        for (int i = startAt; i < Math.min(startAt + pageSize, total); i++) {
+            issues.add(issue(i));
+        }
+        return page;
+    }
+
+    public byte[] sprintIssuesPageBytes(int startAt, int pageSize, int total) {
+        try {
+            return objectMapper.writeValueAsBytes(sprintIssuesPage(startAt, pageSize, total));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Issues as returned by a request with the given field projection, without the fields the projection omits.
+     * Large sets stay small enough to be held in memory, and they are what the reports really work with.
+     */
+    public List<Issue> issues(int count, Set<String> fields) {
+        List<Issue> issues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ObjectNode issue = issue(i);
+            ((ObjectNode) issue.get("fields")).retain(fields);
+            try {
+                issues.add(objectMapper.treeToValue(issue, Issue.class));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * Teams of equal size covering 80 % of the assignees, every component belongs to one team.
+     */
+    public static List<Team> teams(int teamCount) {
+        List<Team> teams = new ArrayList<>(teamCount);
+        int membersPerTeam = USERS * 4 / 5 / teamCount;
+        for (int team = 0; team < teamCount; team++) {
+            List<String> members = new ArrayList<>(membersPerTeam);
+            for (int member = 0; member < membersPerTeam; member++) {
+                members.add("user" + (team * membersPerTeam + member) + "@mycompany.com");
+            }
+            List<String> components = new ArrayList<>();
+            for (int component = team; component < COMPONENTS.length; component += teamCount) {
+                components.add(COMPONENTS[component]);
+            }
+            teams.add(Team.builder().name("Team " + team).members(members).components(components).build());
+        }
+        return teams;
+    }
+
+    public ObjectNode issue(int index) {
+        return issue(index, SPRINT_ID);
+    }
+
+    /**
+     * @param index unique number of the issue, its id is 100000 + index
+     * @param sprintId sprint the issue is or was in
+     */
+    public ObjectNode issue(int index, int sprintId) {
+        int id = 100_000 + index;
+        ObjectNode issue = objectMapper.createObjectNode();
+        issue.put("expand", "operations,versionedRepresentations,editmeta,changelog,renderedFields");
+        issue.put("id", String.valueOf(id));
+        issue.put("self", "https://your-jira-server.com/rest/agile/1.0/issue/" + id);
+        issue.put("key", "ISSUE-" + id);
+
+        ObjectNode fields = issue.putObject("fields");
+        if (random.nextInt(5) > 0)
+            fields.put(STORY_POINTS_COLUMN, random.nextInt(13) + 1);
+        else
+            fields.putNull(STORY_POINTS_COLUMN);
+
+        if (random.nextInt(4) > 0) {
+            int epicId = random.nextInt(40);
+            ObjectNode epic = fields.putObject("epic");
+            epic.put("id", 500_000 + epicId);
+            epic.put("key", "EPIC-" + epicId);
+            epic.put("self", "https://your-jira-server.com/rest/agile/1.0/epic/" + (500_000 + epicId));
+            epic.put("name", "Epic " + epicId);
+            epic.put("summary", "Summary of epic " + epicId);
+            epic.putObject("color").put("key", "color_" + (epicId % 14));
+            epic.put("done", false);
+        } else {
+            fields.putNull("epic");
+        }
+
+        ArrayNode labels = fields.putArray("labels");
+        for (int i = random.nextInt(3); i > 0; i--) {
+            labels.add(LABELS[random.nextInt(LABELS.length)]);
+        }
+
+        // Linked issues carry their own status, which a recursive search for "status" finds first
+        ArrayNode issueLinks = fields.putArray("issuelinks");
+        for (int i = random.nextInt(3); i > 0; i--) {
+            int linkedId = 100_000 + random.nextInt(10_000);
+            ObjectNode link = issueLinks.addObject();
+            link.put("id", String.valueOf(200_000 + random.nextInt(100_000)));
+            link.putObject("type").put("name", "Blocks");
+            ObjectNode linkedIssue = link.putObject("outwardIssue");
+            linkedIssue.put("id", String.valueOf(linkedId));
+            linkedIssue.put("key", "ISSUE-" + linkedId);
+            ObjectNode linkedFields = linkedIssue.putObject("fields");
+            linkedFields.put("summary", text(40 + random.nextInt(60)));
+            linkedFields.set("status", status(STATUS_CATEGORIES[random.nextInt(STATUS_CATEGORIES.length)]));
+        }
+
+        if (random.nextInt(6) > 0)
+            fields.set("assignee", user(random.nextInt(USERS)));
+        else
+            fields.putNull("assignee");
+
+        fields.set("status", status(STATUS_CATEGORIES[random.nextInt(STATUS_CATEGORIES.length)]));
+
+        ArrayNode components = fields.putArray("components");
+        for (int i = random.nextInt(3); i > 0; i--) {
+            int component = random.nextInt(COMPONENTS.length);
+            ObjectNode node = components.addObject();
+            node.put("self", "https://your-jira-server.com/rest/api/2/component/" + (11_000 + component));
+            node.put("id", String.valueOf(11_000 + component));
+            node.put("name", COMPONENTS[component]);
+            node.put("description", COMPONENTS[component] + " services");
+        }
+
+        fields.set("creator", user(random.nextInt(USERS)));
+        fields.set("reporter", user(random.nextInt(USERS)));
+        fields.put("description", text(descriptionLength > 0
+                ? descriptionLength
+                : MIN_DESCRIPTION_LENGTH + random.nextInt(DESCRIPTION_LENGTH_SPREAD)));
+        fields.put("summary", text(40 + random.nextInt(60)));
+        fields.putArray("subtasks");
+
+        if (random.nextBoolean()) {
+            fields.set("sprint", sprint(sprintId, "active"));
+            fields.putArray("closedSprints");
+        } else {
+            fields.putNull("sprint");
+            fields.putArray("closedSprints").add(sprint(sprintId, "closed"));
+        }
+
+        ObjectNode comment = fields.putObject("comment");
+        ArrayNode comments = comment.putArray("comments");
+        for (int i = random.nextInt(4); i > 0; i--) {
+            ObjectNode node = comments.addObject();
+            node.set("author", user(random.nextInt(USERS)));
+            node.put("body", text(50 + random.nextInt(500)));
+        }
+        comment.put("total", comments.size());
+        return issue;
+    }
+
+    private ObjectNode user(int index) {
+        ObjectNode user = objectMapper.createObjectNode();
+        user.put("self", "https://your-jira-server.com/rest/api/2/user?username=user" + index);
+        user.put("name", "user" + index);
+        user.put("key", "JIRAUSER" + index);
+        user.put("emailAddress", "user" + index + "@mycompany.com");
+        ObjectNode avatarUrls = user.putObject("avatarUrls");
+        for (String size : new String[]{"48x48", "24x24", "16x16", "32x32"}) {
+            avatarUrls.put(size, "https://your-jira-server.com/secure/useravatar?size=" + size + "&ownerId=JIRAUSER" + index);
+        }
+        user.put("displayName", "User " + index);
+        user.put("active", true);
+        user.put("timeZone", "Etc/UTC");
+        return user;
+    }
+
+    private ObjectNode status(String category) {
+        ObjectNode status = objectMapper.createObjectNode();
+        status.put("self", "https://your-jira-server.com/rest/api/2/status/10100");
+        status.put("description", "");
+        status.put("name", category);
+        status.put("id", "10100");
+        ObjectNode statusCategory = status.putObject("statusCategory");
+        statusCategory.put("id", 4);
+        statusCategory.put("key", category.toLowerCase().replace(' ', '-'));
+        statusCategory.put("colorName", "yellow");
+        statusCategory.put("name", category);
+        return status;
+    }
+
+    private ObjectNode sprint(int id, String state) {
+        ObjectNode sprint = objectMapper.createObjectNode();
+        sprint.put("id", id);
+        sprint.put("self", "https://your-jira-server.com/rest/agile/1.0/sprint/" + id);
+        sprint.put("state", state);
+        sprint.put("name", "Sprint " + id);
+        sprint.put("startDate", "2023-11-01T18:00:00.000Z");
+        sprint.put("endDate", "2023-11-15T18:00:00.000Z");
+        sprint.put("originBoardId", 38);
+        sprint.put("goal", "Sprint goal");
+        return sprint;
+    }
+
+    private String text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("lorem ipsum dolor sit amet ".charAt(random.nextInt(27)));
+        }
+        return text.toString();
+    }
+}
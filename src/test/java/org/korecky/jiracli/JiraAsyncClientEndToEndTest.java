@@ -0,0 +1,120 @@
+package org.korecky.jiracli;
+
+import org.korecky.jiracli.configuration.Cache;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.dto.Board;
+import org.korecky.jiracli.dto.Issue;
+import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.fake.FakeJiraServer;
+import org.korecky.jiracli.fake.FakeJiraSettings;
+import org.korecky.jiracli.http.Endpoint;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link JiraAsyncClient} against {@link FakeJiraServer} over real HTTP.
+ */
+public class JiraAsyncClientEndToEndTest {
+
+    @Test
+    public void getSprintIssuesReadsEveryPageOnce() throws Exception {
+        // The server returns at most 50 issues, although the client asks for 100
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(120).build());
+             JiraAsyncClient jiraClient = new JiraAsyncClient(server(server, null))) {
+            List<Issue> issues = jiraClient.getSprintIssues(server.activeSprintId(1), 100, FieldProjection.ALL_FIELDS).join();
+
+            Assert.assertEquals(issues.size(), 120);
+            Assert.assertEquals(issues.stream().map(Issue::getId).collect(Collectors.toSet()).size(), 120);
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 3);
+        }
+    }
+
+    @Test
+    public void boardsAndSprintsArePaged() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(60).kanbanBoards(0).sprintsPerBoard(70).issuesPerSprint(0).build());
+             JiraAsyncClient jiraClient = new JiraAsyncClient(server(server, null))) {
+            List<Board> boards = jiraClient.getAllBoards().join();
+            List<Sprint> sprints = jiraClient.getBoardSprints(1, null).join();
+
+            Assert.assertEquals(boards.size(), 60);
+            Assert.assertEquals(sprints.size(), 70);
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARDS), 2);
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARD_SPRINTS), 2);
+        }
+    }
+
+    @Test
+    public void throttledRequestsAreRetriedWithoutLosingPages() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(500)
+                .throttledRequests(0.3).retryAfterSeconds(0).build());
+             JiraAsyncClient jiraClient = new JiraAsyncClient(server(server, null))) {
+            List<Issue> issues = jiraClient.getSprintIssues(server.activeSprintId(1), 50, FieldProjection.ALL_FIELDS).join();
+
+            Set<Integer> ids = new HashSet<>();
+            issues.forEach(issue -> ids.add(issue.getId()));
+            Assert.assertEquals(ids.size(), 500);
+            Assert.assertTrue(server.getThrottledRequestCount() > 0);
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 10 + server.getThrottledRequestCount());
+        }
+    }
+
+    @Test
+    public void missingSprintIsNull() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(0).build());
+             JiraAsyncClient jiraClient = new JiraAsyncClient(server(server, null))) {
+            Assert.assertNull(jiraClient.getSprintDetail(999_999).join());
+        }
+    }
+
+    @Test
+    public void failedRequestCompletesExceptionally() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).kanbanBoards(1).sprintsPerBoard(2).issuesPerSprint(0).build());
+             JiraAsyncClient jiraClient = new JiraAsyncClient(server(server, null))) {
+            CompletionException failure = Assert.expectThrows(CompletionException.class, () -> jiraClient.getBoardSprints(2, null).join());
+            Assert.assertTrue(failure.getCause().getMessage().contains("Status: 400"), failure.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void closedSprintsAreAnsweredFromTheCache() throws Exception {
+        Path cacheFolder = TempFolders.create("jira-cli-cache");
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(3).issuesPerSprint(120).build())) {
+            Cache cache = Cache.builder().enabled(true).folder(cacheFolder.toString()).sprintTtl(0).sprintIssuesTtl(0).build();
+            try (JiraAsyncClient jiraClient = new JiraAsyncClient(server(server, cache))) {
+                // Listing the board sprints tells the client which sprints are closed
+                Sprint closed = jiraClient.getBoardSprints(1, "closed").join().get(0);
+                jiraClient.getSprintDetail(closed.getId()).join();
+                jiraClient.getSprintIssues(closed.getId(), 50, FieldProjection.ALL_FIELDS).join();
+            }
+            server.resetCounters();
+
+            // A new client learns the state again, then answers the closed sprint from the cache although the TTL is 0
+            try (JiraAsyncClient jiraClient = new JiraAsyncClient(server(server, cache))) {
+                Sprint closed = jiraClient.getBoardSprints(1, "closed").join().get(0);
+                Sprint sprint = jiraClient.getSprintDetail(closed.getId()).join();
+                List<Issue> issues = jiraClient.getSprintIssues(closed.getId(), 50, FieldProjection.ALL_FIELDS).join();
+
+                Assert.assertEquals(sprint.getId(), closed.getId());
+                Assert.assertEquals(issues.size(), 120);
+                Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT), 0);
+                Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 0);
+            }
+        } finally {
+            TempFolders.delete(cacheFolder);
+        }
+    }
+
+    private static Server server(FakeJiraServer server, Cache cache) {
+        return server.clientSettings()
+                .parallelism(4)
+                .cache(cache)
+                .build();
+    }
+}
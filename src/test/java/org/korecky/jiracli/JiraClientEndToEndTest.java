@@ -0,0 +1,177 @@
+package org.korecky.jiracli;
+
+import org.korecky.jiracli.configuration.Cache;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.dto.Issue;
+import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.fake.FakeJiraServer;
+import org.korecky.jiracli.fake.FakeJiraSettings;
+import org.korecky.jiracli.http.Endpoint;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link JiraClient} against {@link FakeJiraServer} over real HTTP.
+ */
+public class JiraClientEndToEndTest {
+
+    @DataProvider
+    Object[][] parallelism() {
+        return new Object[][]{{1}, {4}};
+    }
+
+    @Test(dataProvider = "parallelism")
+    public void getSprintIssuesReadsEveryPageOnce(int parallelism) throws Exception {
+        // The server returns at most 50 issues, although the client asks for 100
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(120).build());
+             JiraClient jiraClient = new JiraClient(server(server, parallelism))) {
+            List<Issue> issues = jiraClient.getSprintIssues(server.activeSprintId(1), 100);
+
+            Assert.assertEquals(issues.size(), 120);
+            Assert.assertEquals(issues.stream().map(Issue::getId).collect(Collectors.toSet()).size(), 120);
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 3);
+        }
+    }
+
+    @Test(dataProvider = "parallelism")
+    public void findSprintsByNameCrawlsAllBoards(int parallelism) throws Exception {
+        // Sprints of the kanban boards are answered with 400, the crawl must not ask for them
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(10).kanbanBoards(2).sprintsPerBoard(60).issuesPerSprint(0).build());
+             JiraClient jiraClient = new JiraClient(server(server, parallelism))) {
+            List<Sprint> sprints = jiraClient.findSprintsByName("NEO");
+
+            // Boards 1 and 9 belong to the NEO team
+            Assert.assertEquals(sprints.size(), 120);
+            Assert.assertTrue(sprints.stream().allMatch(sprint -> sprint.getName().startsWith("NEO Sprint ")));
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARDS), 1);
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARD_SPRINTS), 20);
+        }
+    }
+
+    @Test(dataProvider = "parallelism")
+    public void findSprintsByNameSkipsBoardsAnsweringBadRequest(int parallelism) throws Exception {
+        // Board 9 of the NEO team does not let the user read its sprints
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(10).kanbanBoards(1).badRequestBoards(Set.of(9))
+                .sprintsPerBoard(60).issuesPerSprint(0).build());
+             JiraClient jiraClient = new JiraClient(server(server, parallelism))) {
+            List<Sprint> sprints = jiraClient.findSprintsByName("NEO");
+
+            Assert.assertEquals(sprints.size(), 60);
+            Assert.assertTrue(sprints.stream().allMatch(sprint -> sprint.getId() / 1000 == 1));
+            // Two pages of 9 boards and one request of board 9, the 400 is not retried and the kanban board is not asked
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARD_SPRINTS), 19);
+        }
+    }
+
+    @Test
+    public void resetMetricsStartsFromZero() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(120).build());
+             JiraClient jiraClient = new JiraClient(server(server, 1))) {
+            jiraClient.getSprintIssues(server.activeSprintId(1), 50);
+            Assert.assertEquals(jiraClient.getMetrics().request(Endpoint.SPRINT_ISSUES).getLatency().getCount(), 3);
+
+            // The daemon resets the metrics before every command
+            jiraClient.resetMetrics();
+            jiraClient.getSprintDetail(server.activeSprintId(1));
+            Assert.assertEquals(jiraClient.getMetrics().request(Endpoint.SPRINT_ISSUES).getLatency().getCount(), 0);
+            Assert.assertEquals(jiraClient.getMetrics().request(Endpoint.SPRINT).getLatency().getCount(), 1);
+        }
+    }
+
+    @Test
+    public void throttledRequestsAreRetriedWithoutLosingPages() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(500)
+                .throttledRequests(0.3).retryAfterSeconds(0).build());
+             JiraClient jiraClient = new JiraClient(server(server, 1))) {
+            List<Issue> issues = jiraClient.getSprintIssues(server.activeSprintId(1), 50);
+
+            Set<Integer> ids = new HashSet<>();
+            issues.forEach(issue -> ids.add(issue.getId()));
+            Assert.assertEquals(ids.size(), 500);
+            Assert.assertTrue(server.getThrottledRequestCount() > 0);
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 10 + server.getThrottledRequestCount());
+        }
+    }
+
+    @Test
+    public void changesOfTheSprintAreNotAnsweredFromTheCache() throws Exception {
+        Path cacheFolder = TempFolders.create("jira-cli-cache");
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(120).build())) {
+            Server settings = server(server, 1);
+            settings.setCache(Cache.builder().enabled(true).folder(cacheFolder.toString()).build());
+            try (JiraClient jiraClient = new JiraClient(settings)) {
+                int sprintId = server.activeSprintId(1);
+                for (int run = 0; run < 2; run++) {
+                    jiraClient.getSprintIssues(sprintId, 50);
+                    jiraClient.getSprintIssuesUpdatedSince(sprintId, 50, FieldProjection.ALL_FIELDS, 10);
+                    jiraClient.getSprintIssueKeys(sprintId, 50);
+                }
+            }
+
+            // 3 pages of all issues once, 3 pages of the changes and 3 pages of the keys on every run
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 3 + 2 * (3 + 3));
+        } finally {
+            TempFolders.delete(cacheFolder);
+        }
+    }
+
+    @Test
+    public void staleCachedResponsesAreRevalidated() throws Exception {
+        Path cacheFolder = TempFolders.create("jira-cli-cache");
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(120).build())) {
+            Server settings = server(server, 1);
+            settings.setCache(Cache.builder().enabled(true).folder(cacheFolder.toString()).sprintTtl(0).sprintIssuesTtl(0).build());
+            try (JiraClient jiraClient = new JiraClient(settings)) {
+                int sprintId = server.activeSprintId(1);
+                Sprint sprint = jiraClient.getSprintDetail(sprintId);
+                jiraClient.getSprintIssues(sprintId, 50);
+                Assert.assertEquals(server.getNotModifiedCount(), 0);
+
+                // Expired responses are sent with their ETag and the server answers 304 without a body
+                Sprint revalidated = jiraClient.getSprintDetail(sprintId);
+                List<Issue> issues = jiraClient.getSprintIssues(sprintId, 50);
+
+                Assert.assertEquals(revalidated, sprint);
+                Assert.assertEquals(issues.size(), 120);
+                Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT), 2);
+                Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 6);
+                Assert.assertEquals(server.getNotModifiedCount(), 4);
+                Assert.assertEquals(jiraClient.getMetrics().request(Endpoint.SPRINT).getLatency().getCount(), 2);
+            }
+        } finally {
+            TempFolders.delete(cacheFolder);
+        }
+    }
+
+    @Test
+    public void pagesLargerThanTheCacheAreRead() throws Exception {
+        Path cacheFolder = TempFolders.create("jira-cli-cache");
+        // Every page of 50 issues has about 1.5 MB, more than the whole cache
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(2).issuesPerSprint(100)
+                .descriptionLength(30_000).build())) {
+            Server settings = server(server, 1);
+            settings.setCache(Cache.builder().enabled(true).folder(cacheFolder.toString()).maxSizeMb(1).build());
+            try (JiraClient jiraClient = new JiraClient(settings)) {
+                List<Issue> issues = jiraClient.getSprintIssues(server.activeSprintId(1), 50);
+
+                Assert.assertEquals(issues.size(), 100);
+                Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 2);
+            }
+        } finally {
+            TempFolders.delete(cacheFolder);
+        }
+    }
+
+    private static Server server(FakeJiraServer server, int parallelism) {
+        return server.clientSettings()
+                .parallelism(parallelism)
+                .build();
+    }
+}
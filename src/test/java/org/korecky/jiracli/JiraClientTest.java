@@ -1,11 +1,6 @@
 package org.korecky.jiracli;
 
-import org.apache.http.HttpEntity;
-import org.apache.http.ProtocolVersion;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.message.BasicStatusLine;
+import org.korecky.jiracli.configuration.Server;
 import org.korecky.jiracli.dto.Issue;
 import org.korecky.jiracli.dto.Sprint;
 import org.mockito.Mock;
@@ -18,10 +13,18 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.when;
 
@@ -31,20 +34,33 @@ public class JiraClientTest {
     private static JiraClient jiraClient;
     AutoCloseable openMocks;
     @Mock
-    private CloseableHttpClient httpClientMock;
+    private HttpClient httpClientMock;
 
     @BeforeClass
     public void setUp() throws Exception {
         openMocks = MockitoAnnotations.openMocks(this);
-        jiraClient = new JiraClient("https://your-jira-server.com", "your-username", "your-password");
+        jiraClient = createClient(1);
+    }
+
+    private JiraClient createClient(int parallelism) throws Exception {
+        JiraClient client = new JiraClient(Server.builder()
+                .url("https://your-jira-server.com")
+                .username("your-username")
+                .password("your-password")
+                .parallelism(parallelism)
+                .build());
 
-        Field httpClientField = JiraClient.class.getDeclaredField("httpClient");
+        Field asyncClientField = JiraClient.class.getDeclaredField("asyncClient");
+        asyncClientField.setAccessible(true);
+        Field httpClientField = JiraAsyncClient.class.getDeclaredField("httpClient");
         httpClientField.setAccessible(true);
-        httpClientField.set(jiraClient, httpClientMock);
+        httpClientField.set(asyncClientField.get(client), httpClientMock);
+        return client;
     }
 
     @AfterClass
     void tearDown() throws Exception {
+        jiraClient.close();
         openMocks.close();
     }
 
@@ -73,6 +89,118 @@ public class JiraClientTest {
         }
     }
 
+    @Test
+    public void getSprintIssuesWithPrefetch() throws Exception {
+        String url = "https://your-jira-server.com/rest/agile/1.0/sprint/124/issue?startAt=%d&maxResults=2";
+        mockResponse(String.format(url, 0), """
+                {"startAt": 0, "maxResults": 2, "total": 5, "issues": [
+                    {"id": "1", "key": "Issue-1", "fields": {}},
+                    {"id": "2", "key": "Issue-2", "fields": {}}
+                ]}
+                """);
+        mockResponse(String.format(url, 2), """
+                {"startAt": 2, "maxResults": 2, "total": 5, "issues": [
+                    {"id": "2", "key": "Issue-2", "fields": {}},
+                    {"id": "3", "key": "Issue-3", "fields": {}}
+                ]}
+                """);
+        mockResponse(String.format(url, 4), """
+                {"startAt": 4, "maxResults": 2, "total": 5, "issues": [
+                    {"id": "4", "key": "Issue-4", "fields": {}}
+                ]}
+                """);
+
+        try (JiraClient parallelClient = createClient(4)) {
+            List<Issue> issues = parallelClient.getSprintIssues(124, 2);
+            Assert.assertEquals(issues.stream().map(Issue::getKey).toList(), List.of("Issue-1", "Issue-2", "Issue-3", "Issue-4"));
+        }
+    }
+
+    @Test
+    public void getSprintIssuesWithProjection() throws Exception {
+        mockResponse("https://your-jira-server.com/rest/agile/1.0/sprint/125/issue?startAt=0&maxResults=50&fields=assignee,components,customfield_10106,epic,labels", """
+                {"startAt": 0, "maxResults": 50, "total": 1, "issues": [
+                    {"id": "1", "key": "Issue-1", "fields": {"customfield_10106": 3, "labels": ["reporting-ui"]}}
+                ]}
+                """);
+
+        FieldProjection projection = FieldProjection.builder()
+                .fields(Set.of("epic", "customfield_10106"))
+                .build();
+        List<Issue> issues = jiraClient.getSprintIssues(125, 50, projection);
+        Assert.assertEquals(issues.size(), 1);
+        Assert.assertEquals(issues.get(0).getLabels(), List.of("reporting-ui"));
+    }
+
+    @Test
+    public void findSprintsByNameInParallel() throws Exception {
+        mockResponse("https://your-jira-server.com/rest/agile/1.0/board?startAt=0", """
+                {"startAt": 0, "maxResults": 50, "isLast": true, "values": [
+                    {"id": 10, "name": "Board A", "type": "scrum"},
+                    {"id": 20, "name": "Board B", "type": "scrum"},
+                    {"id": 30, "name": "Board C", "type": "scrum"}
+                ]}
+                """);
+        mockResponse("https://your-jira-server.com/rest/agile/1.0/board/10/sprint?startAt=0", """
+                {"startAt": 0, "maxResults": 1, "isLast": false, "values": [{"id": 1, "name": "NEO 1", "state": "closed"}]}
+                """);
+        mockResponse("https://your-jira-server.com/rest/agile/1.0/board/10/sprint?startAt=1", """
+                {"startAt": 1, "maxResults": 1, "isLast": true, "values": [{"id": 2, "name": "Other 2", "state": "closed"}]}
+                """);
+        mockResponse("https://your-jira-server.com/rest/agile/1.0/board/20/sprint?startAt=0", """
+                {"startAt": 0, "maxResults": 50, "isLast": true, "values": []}
+                """);
+        mockResponse("https://your-jira-server.com/rest/agile/1.0/board/30/sprint?startAt=0", """
+                {"startAt": 0, "maxResults": 50, "isLast": true, "values": [
+                    {"id": 3, "name": "neo 3", "state": "active"},
+                    {"id": 4, "name": "NEO 4", "state": "future"}
+                ]}
+                """);
+
+        try (JiraClient parallelClient = createClient(4)) {
+            List<Sprint> sprints = parallelClient.findSprintsByName("NEO");
+            Assert.assertEquals(sprints.stream().map(Sprint::getId).toList(), List.of(1, 3, 4));
+        }
+    }
+
+    @Test
+    public void streamBoardSprintsLoadsOnlyConsumedPages() throws Exception {
+        String url = "https://your-jira-server.com/rest/agile/1.0/board/40/sprint?startAt=%d";
+        mockResponse(String.format(url, 0), """
+                {"startAt": 0, "maxResults": 2, "isLast": false, "values": [
+                    {"id": 41, "name": "NEO 41", "state": "closed"},
+                    {"id": 42, "name": "NEO 42", "state": "active"}
+                ]}
+                """);
+        mockResponse(String.format(url, 2), """
+                {"startAt": 2, "maxResults": 2, "isLast": true, "values": [{"id": 43, "name": "NEO 43", "state": "future"}]}
+                """);
+
+        List<Sprint> sprints = jiraClient.streamBoardSprints(40, null).limit(2).toList();
+        Assert.assertEquals(sprints.stream().map(Sprint::getId).toList(), List.of(41, 42));
+        Mockito.verify(httpClientMock, Mockito.never()).sendAsync(requestTo(String.format(url, 2)), Mockito.any());
+    }
+
+    @Test
+    public void streamSprintIssuesStopsAtTheFirstMatch() throws Exception {
+        String url = "https://your-jira-server.com/rest/agile/1.0/sprint/126/issue?startAt=%d&maxResults=2";
+        mockResponse(String.format(url, 0), """
+                {"startAt": 0, "maxResults": 2, "total": 4, "issues": [
+                    {"id": "1", "key": "Issue-1", "fields": {}},
+                    {"id": "2", "key": "Issue-2", "fields": {}}
+                ]}
+                """);
+        mockResponse(String.format(url, 2), """
+                {"startAt": 2, "maxResults": 2, "total": 4, "issues": [
+                    {"id": "3", "key": "Issue-3", "fields": {}},
+                    {"id": "4", "key": "Issue-4", "fields": {}}
+                ]}
+                """);
+
+        Assert.assertTrue(jiraClient.streamSprintIssues(126, 2, FieldProjection.ALL_FIELDS).anyMatch(issue -> issue.getKey().equals("Issue-2")));
+        Mockito.verify(httpClientMock, Mockito.never()).sendAsync(requestTo(String.format(url, 2)), Mockito.any());
+    }
+
     @Test(dataProvider = "getIssueDetailDataProvider")
     public void getIssueDetail(String issueKey, Issue expectedIssue, Integer expectedNumOfFields, String responseJson) throws Exception {
         String url = "https://your-jira-server.com/rest/api/2/issue/" + issueKey;
@@ -628,13 +756,16 @@ public class JiraClientTest {
     }
 
     private void mockResponse(String url, String expectedResponse) throws Exception {
-        CloseableHttpResponse responseMock = Mockito.mock(CloseableHttpResponse.class);
-        HttpEntity entity = Mockito.mock(HttpEntity.class);
-        when(responseMock.getStatusLine()).thenReturn(new BasicStatusLine(new ProtocolVersion("HTTP", 1, 1), 200, "OK"));
-        when(entity.getContent()).thenReturn(new ByteArrayInputStream(expectedResponse.getBytes()));
-        when(responseMock.getEntity()).thenReturn(entity);
-        when(httpClientMock.execute(Mockito.argThat(request ->
-                request instanceof HttpGet && request.getURI().toString().equals(url))))
-                .thenReturn(responseMock);
+        @SuppressWarnings("unchecked")
+        HttpResponse<InputStream> responseMock = Mockito.mock(HttpResponse.class);
+        when(responseMock.statusCode()).thenReturn(200);
+        when(responseMock.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(responseMock.body()).thenReturn(new ByteArrayInputStream(expectedResponse.getBytes()));
+        when(httpClientMock.sendAsync(requestTo(url), Mockito.<HttpResponse.BodyHandler<InputStream>>any()))
+                .thenReturn(CompletableFuture.completedFuture(responseMock));
+    }
+
+    private static HttpRequest requestTo(String url) {
+        return Mockito.argThat(request -> request != null && request.uri().toString().equals(url));
     }
-}
\ No newline at end of file
+}
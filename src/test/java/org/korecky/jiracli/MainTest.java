@@ -0,0 +1,145 @@
+package org.korecky.jiracli;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.ParseException;
+import org.korecky.jiracli.configuration.Batch;
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.Output;
+import org.korecky.jiracli.configuration.Trend;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class MainTest {
+
+    @Test
+    public void boardReplacesConfiguredSprintIds() throws ParseException {
+        Configuration configuration = Configuration.builder()
+                .batch(Batch.builder().sprintIds(List.of(101, 102)).state("active").build())
+                .build();
+
+        Main.applyBatchOptions(configuration, parse("--board", "38", "--state", "closed"));
+
+        Assert.assertNull(configuration.getBatch().getSprintIds());
+        Assert.assertEquals(configuration.getBatch().getBoardId(), 38);
+        Assert.assertEquals(configuration.getBatch().getState(), "closed");
+    }
+
+    @Test
+    public void sprintIdsReplaceConfiguredBoard() throws ParseException {
+        Configuration configuration = Configuration.builder()
+                .batch(Batch.builder().boardId(38).build())
+                .build();
+
+        Main.applyBatchOptions(configuration, parse("--sprints", "101,102"));
+
+        Assert.assertEquals(configuration.getBatch().getSprintIds(), List.of(101, 102));
+        Assert.assertNull(configuration.getBatch().getBoardId());
+    }
+
+    @Test
+    public void sprintIdsAndBoardCannotBeCombined() {
+        Assert.assertThrows(ParseException.class, () -> parse("--sprints", "101", "--board", "38"));
+    }
+
+    @Test
+    public void trendReplacesConfiguredBatch() throws ParseException {
+        Configuration configuration = Configuration.builder()
+                .batch(Batch.builder().sprintIds(List.of(101, 102)).build())
+                .build();
+
+        CommandLine commandLine = parse("--trend", "38", "--last", "8");
+        Main.applyBatchOptions(configuration, commandLine);
+        Main.applyTrendOptions(configuration, commandLine);
+
+        Assert.assertNull(configuration.getBatch());
+        Assert.assertEquals(configuration.getTrend().getBoardId(), 38);
+        Assert.assertEquals(configuration.getTrend().getSprintCount(), 8);
+    }
+
+    @Test
+    public void batchReplacesConfiguredTrend() throws ParseException {
+        Configuration configuration = Configuration.builder()
+                .trend(Trend.builder().boardId(38).build())
+                .build();
+
+        CommandLine commandLine = parse("--board", "40");
+        Main.applyBatchOptions(configuration, commandLine);
+        Main.applyTrendOptions(configuration, commandLine);
+
+        Assert.assertNull(configuration.getTrend());
+        Assert.assertEquals(configuration.getBatch().getBoardId(), 40);
+    }
+
+    @Test
+    public void trendCannotBeCombinedWithBatch() {
+        Assert.assertThrows(ParseException.class, () -> parse("--trend", "38", "--board", "38"));
+        Assert.assertThrows(ParseException.class, () -> parse("--trend", "38", "--sprints", "101"));
+    }
+
+    @Test
+    public void relativeFoldersAreResolvedAgainstTheWorkingFolderOfTheRequest() {
+        Path workingFolder = Path.of("/home/user/reports");
+        Path absoluteFolder = Path.of("/var/tmp/jira-cli").toAbsolutePath();
+        Configuration configuration = Configuration.builder()
+                .outputFolder("out")
+                .snapshotFolder(absoluteFolder.toString())
+                .output(Output.builder().tempFolder("tmp").build())
+                .build();
+
+        Main.resolveFolders(configuration, workingFolder);
+
+        Assert.assertEquals(Path.of(configuration.getOutputFolder()), workingFolder.resolve("out"));
+        Assert.assertEquals(Path.of(configuration.getSnapshotFolder()), absoluteFolder);
+        Assert.assertEquals(Path.of(configuration.getOutput().getTempFolder()), workingFolder.resolve("tmp"));
+    }
+
+    @Test
+    public void foldersOfLocalRunStayRelative() {
+        Configuration configuration = Configuration.builder()
+                .outputFolder("out")
+                .build();
+
+        Main.resolveFolders(configuration, Path.of(""));
+
+        Assert.assertEquals(configuration.getOutputFolder(), "out");
+        Assert.assertNull(configuration.getSnapshotFolder());
+        Assert.assertNull(configuration.getOutput().getTempFolder());
+    }
+
+    @Test
+    public void removedConnectionPoolSettingsAreRejected() throws IOException {
+        Path folder = TempFolders.create("main-test");
+        try {
+            Path configFile = folder.resolve("config.yml");
+            Files.writeString(configFile, """
+                    server:
+                      url: "https://your-jira-server.com"
+                      transport:
+                        connectTimeout: 5000
+                        maxConnectionsPerRoute: 20
+                    """);
+
+            IOException failure = Assert.expectThrows(IOException.class, () -> Main.readConfig(configFile.toFile()));
+            Assert.assertTrue(failure.getMessage().contains("maxConnectionsPerRoute"), failure.getMessage());
+
+            Files.writeString(configFile, """
+                    server:
+                      url: "https://your-jira-server.com"
+                      transport:
+                        connectTimeout: 5000
+                    """);
+            Assert.assertEquals(Main.readConfig(configFile.toFile()).getServer().getTransport().getConnectTimeout(), 5000);
+        } finally {
+            TempFolders.delete(folder);
+        }
+    }
+
+    private static CommandLine parse(String... args) throws ParseException {
+        return Main.parse(Main.createOptions(), args);
+    }
+}
@@ -0,0 +1,83 @@
+package org.korecky.jiracli;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PagerTest {
+
+    @Test
+    public void pagesAreLoadedFromTheNumberOfReceivedItems() {
+        List<Integer> requestedOffsets = new ArrayList<>();
+        // Server returns at most 3 items, regardless of the requested page size
+        List<Integer> items = Pager.<Integer>stream(startAt -> {
+            requestedOffsets.add(startAt);
+            List<Integer> page = IntStream.range(startAt, Math.min(startAt + 3, 8)).boxed().collect(Collectors.toList());
+            return new Pager.Page<>(page, startAt + page.size() >= 8);
+        }).toList();
+
+        Assert.assertEquals(items, IntStream.range(0, 8).boxed().collect(Collectors.toList()));
+        Assert.assertEquals(requestedOffsets, List.of(0, 3, 6));
+    }
+
+    @Test
+    public void asyncPagesAreLoadedFromTheNumberOfReceivedItems() {
+        List<Integer> requestedOffsets = new ArrayList<>();
+        List<Integer> items = Pager.<Integer>toListAsync(startAt -> {
+            requestedOffsets.add(startAt);
+            List<Integer> page = IntStream.range(startAt, Math.min(startAt + 3, 8)).boxed().collect(Collectors.toList());
+            return CompletableFuture.supplyAsync(() -> new Pager.Page<>(page, startAt + page.size() >= 8));
+        }).join();
+
+        Assert.assertEquals(items, IntStream.range(0, 8).boxed().collect(Collectors.toList()));
+        Assert.assertEquals(requestedOffsets, List.of(0, 3, 6));
+    }
+
+    @Test
+    public void streamLoadsOnlyConsumedPages() {
+        List<Integer> requestedOffsets = new ArrayList<>();
+        boolean found = Pager.stream(startAt -> {
+            requestedOffsets.add(startAt);
+            return new Pager.Page<>(List.of(startAt, startAt + 1), false);
+        }).anyMatch(item -> item == 3);
+
+        Assert.assertTrue(found);
+        Assert.assertEquals(requestedOffsets, List.of(0, 2));
+    }
+
+    @Test
+    public void missingOrEmptyPageEndsThePaging() {
+        Assert.assertEquals(Pager.stream(startAt -> startAt == 0 ? new Pager.Page<>(List.of("a"), false) : null).toList(), List.of("a"));
+        Assert.assertEquals(Pager.stream(startAt -> new Pager.Page<>(List.<String>of(), false)).toList(), List.of());
+        Assert.assertEquals(Pager.toListAsync(startAt -> CompletableFuture.completedFuture(
+                startAt == 0 ? new Pager.Page<>(List.of("a"), false) : null)).join(), List.of("a"));
+        Assert.assertEquals(Pager.toListAsync(startAt -> CompletableFuture.completedFuture(
+                new Pager.Page<>(List.<String>of(), false))).join(), List.of());
+    }
+
+    @Test
+    public void streamThrowsIOExceptionOfPageUnchecked() {
+        UncheckedIOException failure = Assert.expectThrows(UncheckedIOException.class, () -> Pager.stream(startAt -> {
+            if (startAt > 0)
+                throw new IOException("Page " + startAt + " failed");
+            return new Pager.Page<>(List.of("a"), false);
+        }).toList());
+        Assert.assertEquals(failure.getCause().getMessage(), "Page 1 failed");
+    }
+
+    @Test
+    public void asyncListFailsWithTheFailureOfPage() {
+        CompletionException failure = Assert.expectThrows(CompletionException.class, () -> Pager.toListAsync(startAt -> startAt > 0
+                ? CompletableFuture.<Pager.Page<String>>failedFuture(new IOException("Page " + startAt + " failed"))
+                : CompletableFuture.completedFuture(new Pager.Page<>(List.of("a"), false))).join());
+        Assert.assertTrue(failure.getCause() instanceof IOException);
+    }
+}
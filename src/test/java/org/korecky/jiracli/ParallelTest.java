@@ -0,0 +1,54 @@
+package org.korecky.jiracli;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ParallelTest {
+
+    @Test
+    public void resultsAreInTheOrderOfTheTasks() throws IOException {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int task = i;
+            // Earlier tasks finish later
+            tasks.add(() -> {
+                Thread.sleep(10L * (5 - task));
+                return task;
+            });
+        }
+
+        Assert.assertEquals(Parallel.invokeAll(5, tasks), List.of(0, 1, 2, 3, 4));
+    }
+
+    @Test
+    public void failureOfLaterTaskDoesNotWaitForEarlierOnes() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        List<Callable<String>> tasks = List.of(
+                () -> {
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                        return "slow";
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                },
+                () -> {
+                    throw new IOException("Task failed");
+                });
+
+        long start = System.nanoTime();
+        IOException failure = Assert.expectThrows(IOException.class, () -> Parallel.invokeAll(2, tasks));
+
+        Assert.assertEquals(failure.getMessage(), "Task failed");
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        Assert.assertTrue(interrupted.await(10, TimeUnit.SECONDS), "Running task was not interrupted");
+    }
+}
@@ -0,0 +1,219 @@
+package org.korecky.jiracli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.configuration.Team;
+import org.korecky.jiracli.dto.Issue;
+import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.report.IssueFacts;
+import org.korecky.jiracli.report.SprintVelocity;
+import org.korecky.jiracli.sink.ReportSink;
+import org.korecky.jiracli.sink.SheetWriter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums of the report sheets over a small fixed sprint.
+ */
+public class ReportsTest {
+    private static final int SPRINT_ID = 7;
+    private static final ObjectMapper OBJECT_MAPPER = JiraClient.createObjectMapper();
+
+    private final Sprint sprint = Sprint.builder().id(SPRINT_ID).name("NEO Sprint 7")
+            .startDate(LocalDateTime.of(2024, 3, 4, 9, 0))
+            .endDate(LocalDateTime.of(2024, 3, 18, 9, 0))
+            .build();
+    private JiraClient jiraClient;
+    private Reports reports;
+
+    @BeforeMethod
+    public void setUp() {
+        Server server = Server.builder().url("https://your-jira-server.com").build();
+        jiraClient = new JiraClient(server);
+        reports = new Reports(Configuration.builder()
+                .server(server)
+                .storyPointsColumn(IssueFixtures.STORY_POINTS_COLUMN)
+                .teams(List.of(
+                        Team.builder().name("backend").members(List.of("user1@mycompany.com")).build(),
+                        Team.builder().name("frontend").members(List.of("user3@mycompany.com")).build()))
+                .build(), jiraClient);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        jiraClient.close();
+    }
+
+    /**
+     * Done in the sprint: 1 and 3 (closed with the sprint 7). Planned but not delivered: 2, 4 (done in a later
+     * sprint) and 6. Issue 5 is not estimated and counts nowhere.
+     */
+    private List<Issue> issues() throws Exception {
+        return List.of(
+                issue(1, 5.0, "Checkout", "user1", "Done", SPRINT_ID, false),
+                issue(2, 3.0, "Checkout", "user1", "In Progress", SPRINT_ID, false),
+                issue(3, 8.0, "Search", "user3", "Done", SPRINT_ID, true),
+                issue(4, 2.0, null, "user3", "Done", 8, false),
+                issue(5, null, "Search", null, "Done", SPRINT_ID, false),
+                issue(6, 4.0, "Billing", "user1", "To Do", SPRINT_ID, false));
+    }
+
+    @Test
+    public void extractFacts() throws Exception {
+        IssueFacts facts = reports.extractFacts(sprint, issues());
+
+        Assert.assertEquals(facts.size(), 6);
+        Assert.assertEquals(facts.getStoryPoints(0), 5.0);
+        Assert.assertEquals(facts.getStoryPoints(4), 0.0);
+        List<Boolean> closedInSprint = new ArrayList<>();
+        for (int issue = 0; issue < facts.size(); issue++) {
+            closedInSprint.add(facts.isClosedInSprint(issue));
+        }
+        Assert.assertEquals(closedInSprint, List.of(true, false, true, false, false, false));
+
+        // Dictionaries are in the order of the first issue
+        Assert.assertEquals(facts.getEpicCount(), 4);
+        Assert.assertEquals(facts.getEpicName(facts.getEpicId(0)), "Checkout");
+        Assert.assertEquals(facts.getEpicName(facts.getEpicId(3)), Reports.EMPTY_EPIC);
+        Assert.assertEquals(facts.getTeamName(facts.getTeamId(0)), "backend");
+        Assert.assertEquals(facts.getTeamName(facts.getTeamId(2)), "frontend");
+    }
+
+    @Test
+    public void epicsSheetsSplitPlannedAndDelivered() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        reports.createSpreadsheetEpics(sink, reports.extractFacts(sprint, issues()));
+
+        // Not delivered story points of the epics, share of all 22 estimated points
+        Assert.assertEquals(sink.rows(" Epics planned"), List.of(
+                List.of("Epic name", "Story Points", "Percentage"),
+                List.of("Checkout", 3.0, 3.0 / 22),
+                List.of(Reports.EMPTY_EPIC, 2.0, 2.0 / 22),
+                List.of("Billing", 4.0, 4.0 / 22)));
+        // Delivered story points, share of the 13 delivered points
+        Assert.assertEquals(sink.rows(" Epics delivered"), List.of(
+                List.of("Epic name", "Story Points", "Percentage"),
+                List.of("Checkout", 5.0, 5.0 / 13),
+                List.of("Search", 8.0, 8.0 / 13)));
+    }
+
+    @Test
+    public void velocityOfTeams() throws Exception {
+        SprintVelocity velocity = SprintVelocity.of(sprint, reports.extractFacts(sprint, issues()));
+
+        Assert.assertEquals(velocity.getTotal().getPlanned(), 22.0);
+        Assert.assertEquals(velocity.getTotal().getFinished(), 13.0);
+        Assert.assertEquals(new ArrayList<>(velocity.getTeams().keySet()), List.of("backend", "frontend"));
+        Assert.assertEquals(velocity.getTeams().get("backend").getPlanned(), 12.0);
+        Assert.assertEquals(velocity.getTeams().get("backend").getFinished(), 5.0);
+        Assert.assertEquals(velocity.getTeams().get("frontend").getPlanned(), 10.0);
+        Assert.assertEquals(velocity.getTeams().get("frontend").getFinished(), 8.0);
+
+        RecordingSink sink = new RecordingSink();
+        reports.createSpreadsheetVelocityOfTeams(sink, sprint, reports.extractFacts(sprint, issues()));
+        Assert.assertEquals(sink.rows("VelocityOfTeams"), List.of(
+                List.of("Sprint", "From", "To", "Total", "backend", "frontend"),
+                List.of("NEO Sprint 7", "2024-03-04T09:00", "2024-03-18T09:00", 22.0, 12.0, 10.0),
+                List.of("NEO Sprint 7", "2024-03-04T09:00", "2024-03-18T09:00", 13.0, 5.0, 8.0)));
+    }
+
+    /**
+     * @param epic          summary of the epic, {@code null} for an issue without epic
+     * @param assignee      user name, {@code null} for an unassigned issue
+     * @param sprintId      sprint the issue is or was in
+     * @param closedSprint  the sprint is closed, so the issue lists it in its closed sprints
+     */
+    private static Issue issue(int number, Double storyPoints, String epic, String assignee, String statusCategory,
+                               int sprintId, boolean closedSprint) throws Exception {
+        ObjectNode issue = OBJECT_MAPPER.createObjectNode();
+        issue.put("id", String.valueOf(number));
+        issue.put("key", "NEO-" + number);
+        ObjectNode fields = issue.putObject("fields");
+        if (storyPoints != null)
+            fields.put(IssueFixtures.STORY_POINTS_COLUMN, storyPoints);
+        else
+            fields.putNull(IssueFixtures.STORY_POINTS_COLUMN);
+        if (epic != null)
+            fields.putObject("epic").put("key", "EPIC-" + epic).put("summary", epic);
+        else
+            fields.putNull("epic");
+        if (assignee != null)
+            fields.putObject("assignee").put("name", assignee).put("emailAddress", assignee + "@mycompany.com");
+        else
+            fields.putNull("assignee");
+        fields.putArray("components");
+        fields.putObject("status").put("name", statusCategory)
+                .putObject("statusCategory").put("name", statusCategory);
+        if (closedSprint) {
+            fields.putNull("sprint");
+            fields.putArray("closedSprints").addObject().put("id", sprintId).put("state", "closed");
+        } else {
+            fields.putObject("sprint").put("id", sprintId).put("state", "active");
+            fields.putArray("closedSprints");
+        }
+        return OBJECT_MAPPER.treeToValue(issue, Issue.class);
+    }
+
+    /**
+     * Keeps the rows of all sheets in memory.
+     */
+    private static class RecordingSink implements ReportSink {
+        private final Map<String, List<List<Object>>> sheets = new LinkedHashMap<>();
+
+        List<List<Object>> rows(String sheet) {
+            return sheets.get(sheet);
+        }
+
+        @Override
+        public SheetWriter createSheet(String name, List<String> columns) {
+            List<List<Object>> rows = new ArrayList<>();
+            rows.add(new ArrayList<>(columns));
+            sheets.put(name, rows);
+            return new SheetWriter() {
+                private List<Object> row = new ArrayList<>();
+
+                @Override
+                public SheetWriter text(String value) {
+                    row.add(value);
+                    return this;
+                }
+
+                @Override
+                public SheetWriter number(double value) {
+                    row.add(value);
+                    return this;
+                }
+
+                @Override
+                public SheetWriter blank() {
+                    row.add(null);
+                    return this;
+                }
+
+                @Override
+                public void endRow() {
+                    rows.add(row);
+                    row = new ArrayList<>();
+                }
+            };
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
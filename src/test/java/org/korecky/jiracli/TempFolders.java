@@ -0,0 +1,33 @@
+package org.korecky.jiracli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Temporary folders of tests and benchmarks.
+ */
+public final class TempFolders {
+
+    private TempFolders() {
+    }
+
+    public static Path create(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix);
+    }
+
+    /**
+     * Deletes the folder with everything in it, a folder which does not exist is ignored.
+     */
+    public static void delete(Path folder) throws IOException {
+        if (folder == null || !Files.exists(folder))
+            return;
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
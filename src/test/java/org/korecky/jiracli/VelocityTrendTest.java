@@ -0,0 +1,99 @@
+package org.korecky.jiracli;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.Trend;
+import org.korecky.jiracli.fake.FakeJiraServer;
+import org.korecky.jiracli.fake.FakeJiraSettings;
+import org.korecky.jiracli.http.Endpoint;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@link VelocityTrend} against {@link FakeJiraServer} without the response cache.
+ */
+public class VelocityTrendTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private Path folder;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = TempFolders.create("velocity-trend-test");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        TempFolders.delete(folder);
+    }
+
+    @Test
+    public void nextTrendDownloadsOnlyNewlyClosedSprints() throws Exception {
+        Map<String, Map<String, Object>> firstTrend;
+        int port;
+        // Sprints 1000 to 1003 are closed, the trend shows the last three of them
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(6).issuesPerSprint(30).build())) {
+            firstTrend = generate(server);
+            port = server.getPort();
+
+            Assert.assertEquals(List.copyOf(firstTrend.keySet()), List.of("NEO Sprint 2", "NEO Sprint 3", "NEO Sprint 4"));
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 3);
+        }
+
+        // A sprint later 1004 is closed too
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(7).issuesPerSprint(30).port(port).build())) {
+            Map<String, Map<String, Object>> secondTrend = generate(server);
+
+            Assert.assertEquals(List.copyOf(secondTrend.keySet()), List.of("NEO Sprint 3", "NEO Sprint 4", "NEO Sprint 5"));
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 1);
+            // Velocities of the sprints read from the snapshots did not change, team columns may be in another order
+            Assert.assertEquals(secondTrend.get("NEO Sprint 3"), firstTrend.get("NEO Sprint 3"));
+            Assert.assertEquals(secondTrend.get("NEO Sprint 4"), firstTrend.get("NEO Sprint 4"));
+        }
+    }
+
+    @Test
+    public void snapshotsOfAnotherServerAreNotUsed() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(6).issuesPerSprint(30).build())) {
+            generate(server);
+        }
+        // Same sprint ids on another server, none of them may be read from the snapshots of the first one
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().seed(7).boards(1).sprintsPerBoard(6).issuesPerSprint(30).build())) {
+            generate(server);
+
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT_ISSUES), 3);
+        }
+    }
+
+    /**
+     * @return rows of the planned sheet by sprint name
+     */
+    private Map<String, Map<String, Object>> generate(FakeJiraServer server) throws IOException {
+        Configuration configuration = server.reportConfiguration(folder)
+                .snapshotFolder(folder.resolve("snapshots").toString())
+                .trend(Trend.builder().boardId(1).sprintCount(3).parallelism(2).build())
+                .build();
+        try (JiraClient jiraClient = new JiraClient(configuration.getServer())) {
+            new VelocityTrend(configuration, jiraClient).generate();
+        }
+
+        Map<String, Map<String, Object>> rows = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(folder.resolve("Velocity trend 1.jsonl"))) {
+            Map<String, Object> row = OBJECT_MAPPER.readValue(line, new TypeReference<>() {
+            });
+            if (row.get("sheet").equals("Planned"))
+                rows.put((String) row.get("Sprint"), row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,214 @@
+package org.korecky.jiracli.catalog;
+
+import org.korecky.jiracli.JiraClient;
+import org.korecky.jiracli.TempFolders;
+import org.korecky.jiracli.configuration.Catalog;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.dto.Sprint;
+import org.korecky.jiracli.fake.FakeJiraServer;
+import org.korecky.jiracli.fake.FakeJiraSettings;
+import org.korecky.jiracli.http.Endpoint;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds and refreshes the catalogue from {@link FakeJiraServer} and counts the requests.
+ * Board {@code b} of the server has sprints {@code b * 1000 + n}, the last one future, the one before it active.
+ */
+public class SprintCatalogTest {
+    private Path folder;
+    private Path file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = TempFolders.create("sprint-catalog-test");
+        file = folder.resolve("catalog.json");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        TempFolders.delete(folder);
+    }
+
+    @Test
+    public void firstRefreshCrawlsAllBoards() throws Exception {
+        // Board 3 answers its sprints with 400, board 4 is a kanban board
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(3).kanbanBoards(1).badRequestBoards(Set.of(3))
+                .sprintsPerBoard(4).issuesPerSprint(0).build());
+             JiraClient jiraClient = new JiraClient(server(server));
+             SprintCatalog catalog = new SprintCatalog(jiraClient, settings(3_600, false))) {
+            List<Sprint> sprints = catalog.findSprintsByName("NEO");
+
+            Assert.assertEquals(ids(sprints), List.of(1000, 1001, 1002, 1003));
+            Assert.assertEquals(sprintIdsByBoard(catalog.getBoards()), Map.of(
+                    1, List.of(1000, 1001, 1002, 1003), 2, List.of(2000, 2001, 2002, 2003), 3, List.of(), 4, List.of()));
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARDS), 1);
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARD_SPRINTS), 3);
+            Assert.assertTrue(Files.exists(file));
+        }
+    }
+
+    @Test
+    public void storedCatalogueAnswersWithoutRequests() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(4).issuesPerSprint(0).build())) {
+            List<BoardSprints> built;
+            try (JiraClient jiraClient = new JiraClient(server(server));
+                 SprintCatalog catalog = new SprintCatalog(jiraClient, settings(3_600, false))) {
+                built = catalog.getBoards();
+            }
+            server.resetCounters();
+
+            try (JiraClient jiraClient = new JiraClient(server(server));
+                 SprintCatalog catalog = new SprintCatalog(jiraClient, settings(3_600, false))) {
+                Assert.assertEquals(catalog.getBoards(), built);
+                Assert.assertEquals(ids(catalog.findSprintsByName("Platform Sprint")), List.of(2000, 2001, 2002, 2003));
+                Assert.assertEquals(server.getRequestCount(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void refreshKeepsClosedSprintsAndReadsOpenOnes() throws Exception {
+        // Sprints 1000 and 1001 are closed, 1002 active and 1003 future
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(4).issuesPerSprint(0).build())) {
+            build(server);
+            server.resetCounters();
+
+            try (JiraClient jiraClient = new JiraClient(server(server));
+                 SprintCatalog catalog = new SprintCatalog(jiraClient, settings(0, false))) {
+                List<BoardSprints> boards = catalog.getBoards();
+
+                Assert.assertEquals(sprintIdsByBoard(boards).get(1), List.of(1000, 1001, 1002, 1003));
+                // One request of the open sprints per board, no sprint detail
+                Assert.assertEquals(server.getRequestCount(Endpoint.BOARDS), 1);
+                Assert.assertEquals(server.getRequestCount(Endpoint.BOARD_SPRINTS), 2);
+                Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT), 0);
+            }
+        }
+    }
+
+    @Test
+    public void refreshReadsSprintWhichIsNotOpenAnyMore() throws Exception {
+        int port;
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(4).issuesPerSprint(0).build())) {
+            build(server);
+            port = server.getPort();
+        }
+        // A sprint later: 1002 is closed, 1003 active and 1004 future
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(5).issuesPerSprint(0).port(port).build());
+             JiraClient jiraClient = new JiraClient(server(server));
+             SprintCatalog catalog = new SprintCatalog(jiraClient, settings(0, false))) {
+            List<BoardSprints> boards = catalog.getBoards();
+
+            Assert.assertEquals(sprintIdsByBoard(boards).get(1), List.of(1000, 1001, 1002, 1003, 1004));
+            Assert.assertEquals(state(boards, 1002), "closed");
+            Assert.assertEquals(state(boards, 1003), "active");
+            // Only the sprint which left the open states is read again, once per board
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARD_SPRINTS), 2);
+            Assert.assertEquals(server.getRequestCount(Endpoint.SPRINT), 2);
+        }
+    }
+
+    @Test
+    public void backgroundRefreshAnswersFromTheStoredCatalogue() throws Exception {
+        int port;
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(4).issuesPerSprint(0).build())) {
+            build(server);
+            port = server.getPort();
+        }
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(5).issuesPerSprint(0).port(port).build());
+             JiraClient jiraClient = new JiraClient(server(server));
+             SprintCatalog catalog = new SprintCatalog(jiraClient, settings(0, true))) {
+            // The stale catalogue is returned at once, the refresh runs in the background
+            Assert.assertEquals(sprintIdsByBoard(catalog.getBoards()).get(1), List.of(1000, 1001, 1002, 1003));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!sprintIdsByBoard(catalog.getBoards()).get(1).contains(1004)) {
+                Assert.assertTrue(System.currentTimeMillis() < deadline, "Background refresh did not finish");
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    @Test
+    public void catalogueOfAnotherUserIsBuiltAgain() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(4).issuesPerSprint(0).build())) {
+            build(server);
+            server.resetCounters();
+
+            try (JiraClient jiraClient = new JiraClient(server(server, "another-user"));
+                 SprintCatalog catalog = new SprintCatalog(jiraClient, settings(3_600, false))) {
+                Assert.assertEquals(ids(catalog.findSprintsByName("Platform Sprint")), List.of(2000, 2001, 2002, 2003));
+                Assert.assertEquals(server.getRequestCount(Endpoint.BOARDS), 1);
+                Assert.assertEquals(server.getRequestCount(Endpoint.BOARD_SPRINTS), 2);
+            }
+        }
+    }
+
+    @Test
+    public void catalogueOfAnotherServerIsBuiltAgain() throws Exception {
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(2).sprintsPerBoard(4).issuesPerSprint(0).build())) {
+            build(server);
+        }
+        // Another server with one board only, no sprint of the first server may be found
+        try (FakeJiraServer server = new FakeJiraServer(FakeJiraSettings.builder().boards(1).sprintsPerBoard(4).issuesPerSprint(0).build());
+             JiraClient jiraClient = new JiraClient(server(server));
+             SprintCatalog catalog = new SprintCatalog(jiraClient, settings(3_600, false))) {
+            Assert.assertEquals(ids(catalog.findSprintsByName("Platform Sprint")), List.of());
+            Assert.assertEquals(sprintIdsByBoard(catalog.getBoards()).keySet(), Set.of(1, 2));
+            Assert.assertEquals(server.getRequestCount(Endpoint.BOARDS), 1);
+        }
+    }
+
+    private void build(FakeJiraServer server) throws IOException {
+        try (JiraClient jiraClient = new JiraClient(server(server));
+             SprintCatalog catalog = new SprintCatalog(jiraClient, settings(3_600, false))) {
+            catalog.refresh();
+        }
+    }
+
+    private Catalog settings(long refreshInterval, boolean backgroundRefresh) {
+        return Catalog.builder()
+                .enabled(true)
+                .file(file.toString())
+                .refreshInterval(refreshInterval)
+                .backgroundRefresh(backgroundRefresh)
+                .build();
+    }
+
+    private static Server server(FakeJiraServer server) {
+        return server(server, "username");
+    }
+
+    private static Server server(FakeJiraServer server, String username) {
+        return server.clientSettings()
+                .username(username)
+                .parallelism(2)
+                .build();
+    }
+
+    private static List<Integer> ids(List<Sprint> sprints) {
+        return sprints.stream().map(Sprint::getId).sorted().toList();
+    }
+
+    private static Map<Integer, List<Integer>> sprintIdsByBoard(List<BoardSprints> boards) {
+        return boards.stream().collect(Collectors.toMap(BoardSprints::getId, board -> ids(board.getSprints())));
+    }
+
+    private static String state(List<BoardSprints> boards, int sprintId) {
+        return boards.stream().flatMap(board -> board.getSprints().stream())
+                .filter(sprint -> sprint.getId() == sprintId)
+                .findFirst().orElseThrow()
+                .getState();
+    }
+}
@@ -0,0 +1,66 @@
+package org.korecky.jiracli.catalog;
+
+import org.korecky.jiracli.dto.Sprint;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class SprintNameIndexTest {
+    private final List<Sprint> sprints = List.of(
+            Sprint.builder().id(1).name("Platform NEO 12").build(),
+            Sprint.builder().id(2).name("NEO Sprint 13").build(),
+            Sprint.builder().id(3).name("Backend sprint 13").build(),
+            Sprint.builder().id(4).name("NEON 1").build(),
+            Sprint.builder().id(5).name("Frontend 2024-01").build()
+    );
+    private final SprintNameIndex index = new SprintNameIndex(sprints);
+
+    @DataProvider
+    Object[][] searchDataProvider() {
+        return new Object[][]{
+                // a single keyword finds the same sprints as contains, ignoring case
+                {"eo", List.of(1, 2, 4)},
+                // every keyword has to match
+                {"NEO 13", List.of(2)},
+                {"sprint 13", List.of(2, 3)},
+                {"print", List.of(2, 3)},
+                {"on 1", List.of(4, 5)},
+                {"24-0", List.of(5)},
+                {"unknown", List.of()},
+                {"  ", List.of(1, 2, 3, 4, 5)},
+        };
+    }
+
+    @Test(dataProvider = "searchDataProvider")
+    public void search(String query, List<Integer> expectedSprintIds) {
+        List<Integer> sprintIds = index.search(query).stream().map(Sprint::getId).toList();
+        Assert.assertEquals(sprintIds, expectedSprintIds);
+    }
+
+    @Test(dataProvider = "searchDataProvider")
+    public void matcherAcceptsTheSprintsFoundBySearch(String query, List<Integer> expectedSprintIds) {
+        // Expected sprints of the search are in index order, the matcher does not rank them
+        List<Integer> sprintIds = sprints.stream().filter(SprintNameIndex.matcher(query)).map(Sprint::getId).toList();
+        Assert.assertEquals(sprintIds, expectedSprintIds);
+    }
+
+    @DataProvider
+    Object[][] rankingDataProvider() {
+        return new Object[][]{
+                // whole words first, then the shorter name as it is more similar to the query
+                {"neo", List.of(2, 1, 4)},
+                // "1" is a whole word only in "NEON 1"
+                {"ne 1", List.of(4, 1, 2)},
+                // equal word matches, "Platform NEO 12" contains all trigrams of the query
+                {"neo 1", List.of(1, 2, 4)},
+        };
+    }
+
+    @Test(dataProvider = "rankingDataProvider")
+    public void searchRanksBestMatchesFirst(String query, List<Integer> expectedSprintIds) {
+        List<Integer> sprintIds = index.search(query).stream().map(Sprint::getId).toList();
+        Assert.assertEquals(sprintIds, expectedSprintIds);
+    }
+}
@@ -0,0 +1,113 @@
+package org.korecky.jiracli.daemon;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class DaemonTest {
+    private Path folder;
+    private Path socket;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("daemon-test");
+        socket = folder.resolve("daemon.sock");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(socket);
+        Files.deleteIfExists(folder);
+    }
+
+    @Test
+    public void streamsOutputOfAllThreadsAndExitCode() throws Exception {
+        try (Daemon daemon = new Daemon(socket)) {
+            CompletableFuture<Void> served = CompletableFuture.runAsync(() -> {
+                try {
+                    daemon.run(request -> {
+                        if (request.args().contains("--stop")) {
+                            daemon.stop();
+                            return 0;
+                        }
+                        System.out.println("args " + request.args() + " in " + request.workingFolder());
+                        CompletableFuture.runAsync(() -> System.out.println("from worker")).join();
+                        return 3;
+                    });
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Assert.assertEquals(execute(List.of("--board", "38"), out), 3);
+            Assert.assertEquals(out.toString(StandardCharsets.UTF_8), "args [--board, 38] in /work" + System.lineSeparator()
+                    + "from worker" + System.lineSeparator());
+
+            Assert.assertEquals(execute(List.of("--stop"), new ByteArrayOutputStream()), 0);
+            served.get(10, TimeUnit.SECONDS);
+        }
+        Assert.assertFalse(Files.exists(socket));
+        Assert.assertNull(DaemonClient.connect(socket));
+    }
+
+    @Test
+    public void replacesStaleSocket() throws IOException {
+        // Daemon killed without cleaning up leaves the socket file behind
+        try (ServerSocketChannel stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            stale.bind(UnixDomainSocketAddress.of(socket));
+        }
+        Assert.assertTrue(Files.exists(socket));
+        Assert.assertNull(DaemonClient.connect(socket));
+
+        try (Daemon daemon = new Daemon(socket)) {
+            Assert.assertThrows(IllegalStateException.class, () -> new Daemon(socket));
+        }
+    }
+
+    @Test
+    public void createsSocketFolderForOwnerOnly() throws IOException {
+        Path socketFolder = folder.resolve("jira-cli");
+        Path privateSocket = socketFolder.resolve("daemon.sock");
+        try (Daemon daemon = new Daemon(privateSocket)) {
+            Assert.assertEquals(Files.getPosixFilePermissions(socketFolder), PosixFilePermissions.fromString("rwx------"));
+            Assert.assertEquals(Files.getPosixFilePermissions(privateSocket), PosixFilePermissions.fromString("rw-------"));
+        } finally {
+            Files.deleteIfExists(privateSocket);
+            Files.deleteIfExists(socketFolder);
+        }
+    }
+
+    @Test
+    public void restrictsExistingSocketFolderToOwner() throws IOException {
+        Path socketFolder = Files.createDirectory(folder.resolve("jira-cli"), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwxr-xr-x")));
+        Path privateSocket = socketFolder.resolve("daemon.sock");
+        try (Daemon daemon = new Daemon(privateSocket)) {
+            Assert.assertEquals(Files.getPosixFilePermissions(socketFolder), PosixFilePermissions.fromString("rwx------"));
+        } finally {
+            Files.deleteIfExists(privateSocket);
+            Files.deleteIfExists(socketFolder);
+        }
+    }
+
+    private int execute(List<String> args, ByteArrayOutputStream out) throws IOException {
+        try (DaemonClient client = DaemonClient.connect(socket)) {
+            Assert.assertNotNull(client);
+            return client.execute(new DaemonRequest(args, Path.of("/work")), out);
+        }
+    }
+}
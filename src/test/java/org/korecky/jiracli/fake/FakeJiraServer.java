@@ -0,0 +1,450 @@
+package org.korecky.jiracli.fake;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.korecky.jiracli.IssueFixtures;
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.Output;
+import org.korecky.jiracli.configuration.RateLimit;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.http.Endpoint;
+import org.korecky.jiracli.sink.ReportFormat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded stand-in for the Jira REST API serving a synthetic dataset, for tests and load measurements.
+ * <p>
+ * Board {@code b} (1-based) has sprints with ids {@code b * 1000 + n}, the last sprint of a board is future
+ * and like in Jira has no dates yet, the one before it active and the rest closed. Kanban boards follow the scrum boards, like in Jira their sprints
+ * are answered with 400 Bad Request, as are sprints of the scrum boards listed in the settings. Issues of a sprint
+ * are generated by {@link IssueFixtures} on the first request and kept, so every request sees the same data.
+ * The server honours {@code startAt}, {@code maxResults} (capped by the settings), {@code state} and {@code fields},
+ * sends ETag and Last-Modified with every response, answers a matching {@code If-None-Match} with 304 Not Modified
+ * and counts requests per endpoint.
+ */
+public class FakeJiraServer implements AutoCloseable {
+    public static final String[] TEAMS = {"NEO", "Platform", "Backend", "Frontend", "Mobile", "Data", "QA", "Payments"};
+    private static final Pattern BOARD_SPRINTS = Pattern.compile("/rest/agile/1\\.0/board/(\\d+)/sprint/?");
+    private static final Pattern SPRINT = Pattern.compile("/rest/agile/1\\.0/sprint/(\\d+)/?");
+    private static final Pattern SPRINT_ISSUES = Pattern.compile("/rest/agile/1\\.0/sprint/(\\d+)/issue/?");
+    private static final Pattern ISSUE = Pattern.compile("/rest/api/2/issue/ISSUE-(\\d+)/?");
+    private static final String LAST_MODIFIED = "Mon, 02 Jan 2023 08:00:00 GMT";
+
+    private final FakeJiraSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Random random;
+    private final Map<Integer, List<ObjectNode>> sprintIssues = new ConcurrentHashMap<>();
+    private final Map<Endpoint, AtomicLong> requests = new EnumMap<>(Endpoint.class);
+    private final AtomicLong throttledRequests = new AtomicLong();
+    private final AtomicLong notModifiedResponses = new AtomicLong();
+
+    public FakeJiraServer(FakeJiraSettings settings) throws IOException {
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+        for (Endpoint endpoint : Endpoint.values()) {
+            requests.put(endpoint, new AtomicLong());
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.getPort()), 0);
+        executor = Executors.newFixedThreadPool(settings.getThreads());
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * @return base URL of the server, to be used as the Jira URL of the client
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return settings of a client of this server, the client rate is not limited and throttled requests
+     * are retried after a few milliseconds
+     */
+    public Server.ServerBuilder clientSettings() {
+        return Server.builder()
+                .url(getUrl())
+                .username("username")
+                .password("password")
+                .rateLimit(RateLimit.builder().requestsPerSecond(0).initialBackoff(10).maxBackoff(50).build());
+    }
+
+    /**
+     * @return configuration of reports of this server written as JSON lines, with teams of {@link IssueFixtures}
+     */
+    public Configuration.ConfigurationBuilder reportConfiguration(Path outputFolder) {
+        return Configuration.builder()
+                .server(clientSettings().build())
+                .outputFolder(outputFolder.toString())
+                .output(Output.builder().format(ReportFormat.JSONL).build())
+                .storyPointsColumn(IssueFixtures.STORY_POINTS_COLUMN)
+                .teams(IssueFixtures.teams(4));
+    }
+
+    public FakeJiraSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return number of requests answered since the last reset, throttled ones included
+     */
+    public long getRequestCount() {
+        return requests.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public long getRequestCount(Endpoint endpoint) {
+        return requests.get(endpoint).get();
+    }
+
+    public long getThrottledRequestCount() {
+        return throttledRequests.get();
+    }
+
+    /**
+     * @return number of requests answered with 304 Not Modified since the last reset
+     */
+    public long getNotModifiedCount() {
+        return notModifiedResponses.get();
+    }
+
+    public void resetCounters() {
+        requests.values().forEach(counter -> counter.set(0));
+        throttledRequests.set(0);
+        notModifiedResponses.set(0);
+    }
+
+    /**
+     * @return id of the active sprint of the board
+     */
+    public int activeSprintId(int boardId) {
+        return sprintId(boardId, Math.max(0, settings.getSprintsPerBoard() - 2));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            requests.get(Endpoint.of(exchange.getRequestURI())).incrementAndGet();
+            delay();
+            if (throttle()) {
+                throttledRequests.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(settings.getRetryAfterSeconds()));
+                send(exchange, 429, objectMapper.createObjectNode().put("message", "Rate limit exceeded"));
+                return;
+            }
+
+            Matcher boardSprints = BOARD_SPRINTS.matcher(path);
+            if (boardSprints.matches() && !supportsSprints(Integer.parseInt(boardSprints.group(1)))) {
+                send(exchange, 400, objectMapper.createObjectNode().put("message", "The board does not support sprints"));
+                return;
+            }
+
+            Matcher sprintIssues = SPRINT_ISSUES.matcher(path);
+            if (sprintIssues.matches() && settings.getFailingSprints().contains(Integer.parseInt(sprintIssues.group(1)))) {
+                send(exchange, 500, objectMapper.createObjectNode().put("message", "Internal server error"));
+                return;
+            }
+
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            JsonNode body = route(path, query);
+            if (body == null) {
+                send(exchange, 404, objectMapper.createObjectNode().put("message", "Not found " + path));
+            } else {
+                sendWithValidators(exchange, body);
+            }
+        }
+    }
+
+    private JsonNode route(String path, Map<String, String> query) {
+        int startAt = Integer.parseInt(query.getOrDefault("startAt", "0"));
+        int maxResults = Math.min(settings.getMaxResults(), Integer.parseInt(query.getOrDefault("maxResults", String.valueOf(settings.getMaxResults()))));
+        if (path.matches("/rest/agile/1\\.0/board/?"))
+            return boards(startAt, maxResults);
+
+        Matcher matcher = BOARD_SPRINTS.matcher(path);
+        if (matcher.matches())
+            return boardSprints(Integer.parseInt(matcher.group(1)), query.get("state"), startAt, maxResults);
+        matcher = SPRINT_ISSUES.matcher(path);
+        if (matcher.matches())
+            return sprintIssues(Integer.parseInt(matcher.group(1)), fields(query.get("fields")), startAt, maxResults);
+        matcher = SPRINT.matcher(path);
+        if (matcher.matches()) {
+            int sprintId = Integer.parseInt(matcher.group(1));
+            return exists(sprintId) ? sprint(sprintId) : null;
+        }
+        matcher = ISSUE.matcher(path);
+        if (matcher.matches())
+            return issue(Integer.parseInt(matcher.group(1)) - 100_000);
+        return null;
+    }
+
+    private JsonNode boards(int startAt, int maxResults) {
+        int boardCount = settings.getBoards() + settings.getKanbanBoards();
+        ObjectNode page = page(startAt, maxResults, boardCount);
+        ArrayNode values = page.putArray("values");
+        for (int boardId = startAt + 1; boardId <= Math.min(startAt + maxResults, boardCount); boardId++) {
+            ObjectNode board = values.addObject();
+            board.put("id", boardId);
+            board.put("self", getUrl() + "/rest/agile/1.0/board/" + boardId);
+            if (isKanban(boardId)) {
+                board.put("name", "Support board " + boardId);
+                board.put("type", "kanban");
+            } else {
+                board.put("name", team(boardId) + " board " + boardId);
+                board.put("type", "scrum");
+            }
+        }
+        return page;
+    }
+
+    private boolean isKanban(int boardId) {
+        return boardId > settings.getBoards() && boardId <= settings.getBoards() + settings.getKanbanBoards();
+    }
+
+    private boolean supportsSprints(int boardId) {
+        return !isKanban(boardId) && !settings.getBadRequestBoards().contains(boardId);
+    }
+
+    private JsonNode boardSprints(int boardId, String state, int startAt, int maxResults) {
+        if (boardId < 1 || boardId > settings.getBoards())
+            return null;
+        Set<String> states = state != null ? new HashSet<>(Arrays.asList(state.split(","))) : null;
+        List<Integer> sprintIds = new ArrayList<>();
+        for (int number = 0; number < settings.getSprintsPerBoard(); number++) {
+            if (states == null || states.contains(sprintState(number)))
+                sprintIds.add(sprintId(boardId, number));
+        }
+
+        ObjectNode page = page(startAt, maxResults, sprintIds.size());
+        ArrayNode values = page.putArray("values");
+        for (int i = startAt; i < Math.min(startAt + maxResults, sprintIds.size()); i++) {
+            values.add(sprint(sprintIds.get(i)));
+        }
+        return page;
+    }
+
+    private JsonNode sprintIssues(int sprintId, Set<String> fields, int startAt, int maxResults) {
+        if (!exists(sprintId))
+            return null;
+        List<ObjectNode> issues = issuesOf(sprintId);
+        ObjectNode page = objectMapper.createObjectNode();
+        page.put("expand", "schema,names");
+        page.put("startAt", startAt);
+        page.put("maxResults", maxResults);
+        page.put("total", issues.size());
+        ArrayNode values = page.putArray("issues");
+        for (int i = startAt; i < Math.min(startAt + maxResults, issues.size()); i++) {
+            values.add(project(issues.get(i), fields));
+        }
+        return page;
+    }
+
+    private JsonNode issue(int index) {
+        int issuesPerSprint = settings.getIssuesPerSprint();
+        int sprintCount = settings.getBoards() * settings.getSprintsPerBoard();
+        if (index < 0 || issuesPerSprint == 0 || index >= sprintCount * issuesPerSprint)
+            return null;
+        int sprint = index / issuesPerSprint;
+        int sprintId = sprintId(sprint / settings.getSprintsPerBoard() + 1, sprint % settings.getSprintsPerBoard());
+        return issuesOf(sprintId).get(index % issuesPerSprint);
+    }
+
+    /**
+     * Issues of a sprint are generated at once from a seed of their own, so they do not depend on request order.
+     */
+    private List<ObjectNode> issuesOf(int sprintId) {
+        return sprintIssues.computeIfAbsent(sprintId, id -> {
+            int boardId = id / 1000;
+            int sprint = (boardId - 1) * settings.getSprintsPerBoard() + id % 1000;
+            IssueFixtures fixtures = new IssueFixtures(settings.getSeed() * 31 + id)
+                    .withDescriptionLength(settings.getDescriptionLength());
+            List<ObjectNode> issues = new ArrayList<>(settings.getIssuesPerSprint());
+            for (int i = 0; i < settings.getIssuesPerSprint(); i++) {
+                issues.add(fixtures.issue(sprint * settings.getIssuesPerSprint() + i, id));
+            }
+            return issues;
+        });
+    }
+
+    private ObjectNode sprint(int sprintId) {
+        int number = sprintId % 1000;
+        LocalDate start = LocalDate.of(2023, 1, 2).plusWeeks(2L * number);
+        ObjectNode sprint = objectMapper.createObjectNode();
+        sprint.put("id", sprintId);
+        sprint.put("self", getUrl() + "/rest/agile/1.0/sprint/" + sprintId);
+        sprint.put("state", sprintState(number));
+        sprint.put("name", team(sprintId / 1000) + " Sprint " + (number + 1));
+        if (!sprintState(number).equals("future")) {
+            sprint.put("startDate", start + "T08:00:00.000Z");
+            sprint.put("endDate", start.plusWeeks(2) + "T08:00:00.000Z");
+        }
+        sprint.put("originBoardId", sprintId / 1000);
+        sprint.put("goal", "Sprint goal");
+        return sprint;
+    }
+
+    private String sprintState(int number) {
+        int last = settings.getSprintsPerBoard() - 1;
+        if (number == last && last > 0)
+            return "future";
+        return number == Math.max(0, last - 1) ? "active" : "closed";
+    }
+
+    private boolean exists(int sprintId) {
+        int boardId = sprintId / 1000;
+        return boardId >= 1 && boardId <= settings.getBoards() && sprintId % 1000 < settings.getSprintsPerBoard();
+    }
+
+    private static int sprintId(int boardId, int number) {
+        return boardId * 1000 + number;
+    }
+
+    private static String team(int boardId) {
+        return TEAMS[(boardId - 1) % TEAMS.length];
+    }
+
+    private ObjectNode page(int startAt, int maxResults, int total) {
+        ObjectNode page = objectMapper.createObjectNode();
+        page.put("maxResults", maxResults);
+        page.put("startAt", startAt);
+        page.put("total", total);
+        page.put("isLast", startAt + maxResults >= total);
+        return page;
+    }
+
+    /**
+     * @return copy of the issue with only the requested fields, the cached issue is never modified
+     */
+    private ObjectNode project(ObjectNode issue, Set<String> fields) {
+        if (fields == null)
+            return issue;
+        ObjectNode projected = objectMapper.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> properties = issue.fields();
+        while (properties.hasNext()) {
+            Map.Entry<String, JsonNode> property = properties.next();
+            if (!property.getKey().equals("fields")) {
+                projected.set(property.getKey(), property.getValue());
+                continue;
+            }
+            ObjectNode projectedFields = projected.putObject("fields");
+            Iterator<Map.Entry<String, JsonNode>> issueFields = property.getValue().fields();
+            while (issueFields.hasNext()) {
+                Map.Entry<String, JsonNode> field = issueFields.next();
+                if (fields.contains(field.getKey()))
+                    projectedFields.set(field.getKey(), field.getValue());
+            }
+        }
+        return projected;
+    }
+
+    /**
+     * @return requested fields, {@code null} for all fields
+     */
+    private static Set<String> fields(String fields) {
+        if (fields == null || fields.isEmpty() || fields.equals("*all"))
+            return null;
+        return new HashSet<>(Arrays.asList(fields.split(",")));
+    }
+
+    private void delay() {
+        int delay = settings.getLatency();
+        if (settings.getJitter() > 0) {
+            synchronized (random) {
+                delay += random.nextInt(settings.getJitter() + 1);
+            }
+        }
+        if (delay <= 0)
+            return;
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean throttle() {
+        if (settings.getThrottledRequests() <= 0)
+            return false;
+        synchronized (random) {
+            return random.nextDouble() < settings.getThrottledRequests();
+        }
+    }
+
+    private void send(HttpExchange exchange, int statusCode, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Sends the body with its ETag and Last-Modified, or only 304 Not Modified when the client has the same ETag.
+     * The data never changes, so the ETag is derived from the body and Last-Modified is the same for everything.
+     */
+    private void sendWithValidators(HttpExchange exchange, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        String etag = "\"" + Integer.toHexString(Arrays.hashCode(bytes)) + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModifiedResponses.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null)
+            return query;
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0)
+                query.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+}
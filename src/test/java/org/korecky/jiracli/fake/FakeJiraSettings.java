@@ -0,0 +1,80 @@
+package org.korecky.jiracli.fake;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Size of the synthetic dataset served by {@link FakeJiraServer} and how badly the server behaves.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FakeJiraSettings {
+    @Builder.Default
+    private long seed = 42;
+    @Builder.Default
+    private int boards = 10;
+    /**
+     * Kanban boards listed after the scrum boards. They have no sprints, asking for them is answered with 400.
+     */
+    @Builder.Default
+    private int kanbanBoards = 1;
+    /**
+     * Scrum boards whose sprints are answered with 400, like team-managed boards or boards the user may see
+     * but not read sprints of.
+     */
+    @Builder.Default
+    private Set<Integer> badRequestBoards = Set.of();
+    @Builder.Default
+    private int sprintsPerBoard = 20;
+    /**
+     * Sprints whose issues are answered with 500 Internal Server Error.
+     */
+    @Builder.Default
+    private Set<Integer> failingSprints = Set.of();
+    @Builder.Default
+    private int issuesPerSprint = 200;
+    /**
+     * Largest page the server returns, Jira caps pages at 50 by default whatever the client asks for.
+     */
+    @Builder.Default
+    private int maxResults = 50;
+    /**
+     * Length of issue descriptions, 0 for random lengths between 200 and 2200 characters.
+     */
+    @Builder.Default
+    private int descriptionLength = 0;
+    /**
+     * Delay of every response in milliseconds.
+     */
+    @Builder.Default
+    private int latency = 0;
+    /**
+     * Random extra delay of every response, up to this number of milliseconds.
+     */
+    @Builder.Default
+    private int jitter = 0;
+    /**
+     * Share of requests answered with 429 Too Many Requests.
+     */
+    @Builder.Default
+    private double throttledRequests = 0;
+    @Builder.Default
+    private int retryAfterSeconds = 1;
+    /**
+     * Threads serving requests, so the latency of one request does not delay the others.
+     */
+    @Builder.Default
+    private int threads = 64;
+    /**
+     * Port of the server, 0 for any free port. A test restarting the server passes the port of the previous
+     * one, so the server URL and everything stored for it stay the same.
+     */
+    @Builder.Default
+    private int port = 0;
+}
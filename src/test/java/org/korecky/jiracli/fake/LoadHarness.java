@@ -0,0 +1,119 @@
+package org.korecky.jiracli.fake;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.korecky.jiracli.IssueFixtures;
+import org.korecky.jiracli.JiraClient;
+import org.korecky.jiracli.Reports;
+import org.korecky.jiracli.TempFolders;
+import org.korecky.jiracli.configuration.Configuration;
+import org.korecky.jiracli.configuration.RateLimit;
+import org.korecky.jiracli.configuration.Server;
+import org.korecky.jiracli.http.Endpoint;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Measures wall time and number of requests of sprint search and report generation end to end,
+ * against {@link FakeJiraServer}. Run it with {@code ./gradlew loadTest --args="--boards 50 --latency 40"}.
+ * <p>
+ * Every run uses a new client, so nothing is reused between runs except the warmed up JVM.
+ */
+public class LoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        Options options = createOptions();
+        CommandLine commandLine;
+        try {
+            commandLine = new DefaultParser().parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            new HelpFormatter().printHelp("loadTest", options);
+            return;
+        }
+
+        FakeJiraSettings settings = FakeJiraSettings.builder()
+                .boards(intOption(commandLine, "boards", 20))
+                .sprintsPerBoard(intOption(commandLine, "sprints", 30))
+                .issuesPerSprint(intOption(commandLine, "issues", 300))
+                .descriptionLength(intOption(commandLine, "description", 0))
+                .latency(intOption(commandLine, "latency", 20))
+                .jitter(intOption(commandLine, "jitter", 10))
+                .throttledRequests(Double.parseDouble(commandLine.getOptionValue("throttled", "0")))
+                .retryAfterSeconds(intOption(commandLine, "retry-after", 1))
+                .build();
+        int parallelism = intOption(commandLine, "parallelism", 8);
+        int runs = intOption(commandLine, "runs", 3);
+
+        Path outputFolder = TempFolders.create("jira-cli-load");
+        try (FakeJiraServer fakeJira = new FakeJiraServer(settings)) {
+            System.out.println("Dataset: " + settings);
+            System.out.println("Client parallelism: " + parallelism);
+            for (int run = 1; run <= runs; run++) {
+                // Throttled requests wait the real backoff, like against Jira
+                Server server = fakeJira.clientSettings()
+                        .parallelism(parallelism)
+                        .rateLimit(RateLimit.builder().requestsPerSecond(0).build())
+                        .build();
+                Configuration configuration = Configuration.builder()
+                        .server(server)
+                        .outputFolder(outputFolder.toString())
+                        .storyPointsColumn(IssueFixtures.STORY_POINTS_COLUMN)
+                        .teams(IssueFixtures.teams(10))
+                        .build();
+                try (JiraClient jiraClient = new JiraClient(server)) {
+                    measure(fakeJira, "run " + run + " findSprintsByName", () -> jiraClient.findSprintsByName("NEO"));
+                    Reports reports = new Reports(configuration, jiraClient);
+                    measure(fakeJira, "run " + run + " Reports.generate", () -> reports.generate(jiraClient.getSprintDetail(fakeJira.activeSprintId(1))));
+                }
+            }
+        } finally {
+            TempFolders.delete(outputFolder);
+        }
+    }
+
+    private static void measure(FakeJiraServer fakeJira, String name, Task task) throws IOException {
+        fakeJira.resetCounters();
+        long start = System.nanoTime();
+        task.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        StringBuilder endpoints = new StringBuilder();
+        for (Endpoint endpoint : Endpoint.values()) {
+            long count = fakeJira.getRequestCount(endpoint);
+            if (count > 0)
+                endpoints.append(", ").append(endpoint.getTemplate()).append(": ").append(count);
+        }
+        System.out.printf("%-32s %8d ms %8d requests (throttled: %d%s)%n",
+                name, millis, fakeJira.getRequestCount(), fakeJira.getThrottledRequestCount(), endpoints);
+    }
+
+    private static Options createOptions() {
+        Options options = new Options();
+        options.addOption(Option.builder().longOpt("boards").hasArg().desc("number of boards, 20 by default").build());
+        options.addOption(Option.builder().longOpt("sprints").hasArg().desc("sprints per board, 30 by default").build());
+        options.addOption(Option.builder().longOpt("issues").hasArg().desc("issues per sprint, 300 by default").build());
+        options.addOption(Option.builder().longOpt("description").hasArg().desc("length of issue descriptions, random by default").build());
+        options.addOption(Option.builder().longOpt("latency").hasArg().desc("delay of every response in ms, 20 by default").build());
+        options.addOption(Option.builder().longOpt("jitter").hasArg().desc("random extra delay in ms, 10 by default").build());
+        options.addOption(Option.builder().longOpt("throttled").hasArg().desc("share of requests answered with 429, 0 by default").build());
+        options.addOption(Option.builder().longOpt("retry-after").hasArg().desc("Retry-After of throttled responses in seconds, 1 by default").build());
+        options.addOption(Option.builder().longOpt("parallelism").hasArg().desc("parallelism of the client, 8 by default").build());
+        options.addOption(Option.builder().longOpt("runs").hasArg().desc("number of measured runs, 3 by default").build());
+        return options;
+    }
+
+    private static int intOption(CommandLine commandLine, String name, int defaultValue) {
+        return commandLine.hasOption(name) ? Integer.parseInt(commandLine.getOptionValue(name)) : defaultValue;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws IOException;
+    }
+}
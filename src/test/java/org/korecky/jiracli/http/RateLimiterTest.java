@@ -0,0 +1,88 @@
+package org.korecky.jiracli.http;
+
+import org.korecky.jiracli.configuration.RateLimit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimiterTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    public void acquireWaitsWhenBurstIsUsed() {
+        RateLimiter rateLimiter = new RateLimiter(RateLimit.builder().requestsPerSecond(10).burst(2).build(), nanoTime::get);
+        Assert.assertEquals(rateLimiter.tryAcquire(), 0);
+        Assert.assertEquals(rateLimiter.tryAcquire(), 0);
+        Assert.assertEquals(rateLimiter.tryAcquire(), TimeUnit.MILLISECONDS.toNanos(100));
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertEquals(rateLimiter.tryAcquire(), 0);
+    }
+
+    @Test
+    public void throttledHalvesRateAndPausesAllRequests() {
+        RateLimiter rateLimiter = new RateLimiter(RateLimit.builder().requestsPerSecond(8).minRequestsPerSecond(3).build(), nanoTime::get);
+        rateLimiter.throttled(2_000);
+        Assert.assertEquals(rateLimiter.getRate(), 4.0);
+        Assert.assertEquals(rateLimiter.tryAcquire(), TimeUnit.SECONDS.toNanos(2));
+
+        rateLimiter.throttled(0);
+        Assert.assertEquals(rateLimiter.getRate(), 3.0);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assert.assertEquals(rateLimiter.tryAcquire(), 0);
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.succeeded();
+        }
+        Assert.assertEquals(rateLimiter.getRate(), 8.0);
+    }
+
+    @Test
+    public void unlimitedRateStillHonoursPauses() {
+        RateLimiter rateLimiter = new RateLimiter(RateLimit.builder().requestsPerSecond(0).build(), nanoTime::get);
+        for (int i = 0; i < 1_000; i++) {
+            Assert.assertEquals(rateLimiter.tryAcquire(), 0);
+        }
+        rateLimiter.throttled(500);
+        Assert.assertEquals(rateLimiter.tryAcquire(), TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void parseHeaders() {
+        long now = 1_700_000_000_000L;
+        Assert.assertEquals(RateLimiter.retryAfterMillis("3", now), 3_000);
+        Assert.assertEquals(RateLimiter.retryAfterMillis("Tue, 14 Nov 2023 22:13:30 GMT", now), 10_000);
+        Assert.assertEquals(RateLimiter.retryAfterMillis("soon", now), 0);
+        Assert.assertEquals(RateLimiter.retryAfterMillis(null, now), 0);
+        Assert.assertEquals(RateLimiter.resetMillis("2023-11-14T22:13:25Z", now), 5_000);
+        Assert.assertEquals(RateLimiter.resetMillis("1700000001", now), 1_000);
+    }
+
+    @Test
+    public void retryDelayIsJitteredExponentialBackoff() {
+        RetryPolicy retryPolicy = new RetryPolicy(RateLimit.builder().maxRetries(4).initialBackoff(100).maxBackoff(300).build(), new Random(42));
+        long[] ceilings = {100, 200, 300, 300};
+        for (int retry = 0; retry < ceilings.length; retry++) {
+            long delay = retryPolicy.retryDelay(retry);
+            Assert.assertTrue(delay >= 0 && delay <= ceilings[retry], "retry " + retry + " waits " + delay);
+        }
+        Assert.assertEquals(retryPolicy.retryDelay(4), -1);
+    }
+
+    @Test
+    public void retriesStopWhenBudgetIsSpent() {
+        RetryPolicy retryPolicy = new RetryPolicy(RateLimit.builder().retryBudget(0.5).build(), new Random(42));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(retryPolicy.retryDelay(0) >= 0);
+        }
+        Assert.assertEquals(retryPolicy.retryDelay(0), -1);
+
+        retryPolicy.requested();
+        retryPolicy.requested();
+        Assert.assertTrue(retryPolicy.retryDelay(0) >= 0);
+        Assert.assertEquals(retryPolicy.retryDelay(0), -1);
+    }
+}
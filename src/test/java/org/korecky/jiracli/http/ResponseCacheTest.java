@@ -0,0 +1,134 @@
+package org.korecky.jiracli.http;
+
+import org.korecky.jiracli.TempFolders;
+import org.korecky.jiracli.configuration.Cache;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ResponseCacheTest {
+    private static final URI SPRINT = URI.create("https://jira.example.com/rest/agile/1.0/sprint/1001");
+    private static final URI SPRINT_ISSUES = URI.create("https://jira.example.com/rest/agile/1.0/sprint/1001/issue?startAt=0");
+    private static final URI ISSUE = URI.create("https://jira.example.com/rest/api/2/issue/NEO-1");
+
+    private Path folder;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = TempFolders.create("response-cache-test");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        TempFolders.delete(folder);
+    }
+
+    @Test
+    public void storesBodyAndValidators() throws IOException {
+        ResponseCache cache = cache(Cache.builder().sprintTtl(600).build());
+        Path body = cache.put(SPRINT, content("{\"id\":1001}"), "\"abc\"", "Mon, 02 Jan 2023 08:00:00 GMT", false);
+
+        CachedResponse cached = cache.get(SPRINT);
+        Assert.assertEquals(cached.getBody(), body);
+        Assert.assertEquals(Files.readString(cached.getBody()), "{\"id\":1001}");
+        Assert.assertEquals(cached.getEtag(), "\"abc\"");
+        Assert.assertEquals(cached.getLastModified(), "Mon, 02 Jan 2023 08:00:00 GMT");
+        Assert.assertTrue(cached.isFresh());
+        Assert.assertNull(cache.get(ISSUE));
+    }
+
+    @Test
+    public void timeToLiveDependsOnEndpoint() throws IOException {
+        ResponseCache cache = cache(Cache.builder().sprintTtl(600).issueTtl(0).build());
+        cache.put(SPRINT, content("{}"), "\"sprint\"", null, false);
+        cache.put(ISSUE, content("{}"), "\"issue\"", null, false);
+
+        Assert.assertTrue(cache.get(SPRINT).isFresh());
+        // Stale response is still returned, its validators are sent with the next request
+        Assert.assertFalse(cache.get(ISSUE).isFresh());
+        Assert.assertEquals(cache.get(ISSUE).getEtag(), "\"issue\"");
+    }
+
+    @Test
+    public void revalidatedResponseIsFreshAgain() throws Exception {
+        ResponseCache cache = cache(Cache.builder().sprintTtl(1).build());
+        cache.put(SPRINT, content("{}"), "\"sprint\"", null, false);
+        Thread.sleep(1_100);
+        Assert.assertFalse(cache.get(SPRINT).isFresh());
+
+        // 304 Not Modified
+        cache.revalidated(SPRINT, false);
+        Assert.assertTrue(cache.get(SPRINT).isFresh());
+    }
+
+    @Test
+    public void immutableResponsesNeverExpire() throws IOException {
+        ResponseCache cache = cache(Cache.builder().sprintTtl(0).sprintIssuesTtl(0).build());
+        cache.put(SPRINT_ISSUES, content("{}"), null, null, true);
+        cache.put(SPRINT, content("{}"), null, null, false);
+        Assert.assertFalse(cache.get(SPRINT).isFresh());
+
+        // The sprint turned out to be closed
+        cache.markImmutable(SPRINT);
+        Assert.assertTrue(cache.get(SPRINT).isFresh());
+        Assert.assertTrue(cache.get(SPRINT_ISSUES).isFresh());
+    }
+
+    @Test
+    public void leastRecentlyUsedResponsesAreEvicted() throws Exception {
+        ResponseCache cache = cache(Cache.builder().maxSizeMb(1).build());
+        String body = "x".repeat(400 * 1024);
+        cache.put(SPRINT, content(body), null, null, false);
+        Thread.sleep(20);
+        cache.put(SPRINT_ISSUES, content(body), null, null, false);
+        Thread.sleep(20);
+        // Reading makes the sprint the most recently used response
+        cache.get(SPRINT);
+        Thread.sleep(20);
+
+        cache.put(ISSUE, content(body), null, null, false);
+
+        Assert.assertNull(cache.get(SPRINT_ISSUES));
+        Assert.assertNotNull(cache.get(SPRINT));
+        Assert.assertNotNull(cache.get(ISSUE));
+    }
+
+    @Test
+    public void storedResponseIsNotEvictedByItself() throws IOException {
+        ResponseCache cache = cache(Cache.builder().maxSizeMb(1).build());
+        cache.put(SPRINT, content("x".repeat(400 * 1024)), null, null, false);
+
+        // The new response alone is over the limit, it is read right after storing, so only the older one goes
+        Path body = cache.put(ISSUE, content("x".repeat(1200 * 1024)), null, null, false);
+
+        Assert.assertTrue(Files.exists(body));
+        Assert.assertNotNull(cache.get(ISSUE));
+        Assert.assertNull(cache.get(SPRINT));
+    }
+
+    @Test
+    public void entriesAreKeptPerUser() throws IOException {
+        Cache settings = Cache.builder().folder(folder.toString()).build();
+        new ResponseCache(settings, "alice").put(SPRINT, content("{}"), null, null, false);
+
+        Assert.assertNotNull(new ResponseCache(settings, "alice").get(SPRINT));
+        Assert.assertNull(new ResponseCache(settings, "bob").get(SPRINT));
+    }
+
+    private ResponseCache cache(Cache settings) {
+        settings.setFolder(folder.toString());
+        return new ResponseCache(settings, "username");
+    }
+
+    private static ByteArrayInputStream content(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
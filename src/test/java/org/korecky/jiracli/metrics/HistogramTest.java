@@ -0,0 +1,35 @@
+package org.korecky.jiracli.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueWithBoundedError() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 1_000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = Histogram.index(value);
+            long upperBound = Histogram.upperBound(index);
+            Assert.assertTrue(upperBound >= value, value + " above its bucket " + upperBound);
+            Assert.assertTrue(index == 0 || Histogram.upperBound(index - 1) < value, value + " below its bucket");
+            Assert.assertTrue(upperBound - value <= value / 8, value + " has bucket " + upperBound);
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        Histogram histogram = new Histogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        Assert.assertEquals(histogram.getCount(), 100);
+        Assert.assertEquals(histogram.getMax(), 100_000_000L);
+        long p50 = histogram.getPercentile(0.5);
+        Assert.assertTrue(p50 >= 50_000_000L && p50 <= 50_000_000L * 9 / 8, "p50 " + p50);
+        long p99 = histogram.getPercentile(0.99);
+        Assert.assertTrue(p99 >= 99_000_000L && p99 <= 100_000_000L, "p99 " + p99);
+        Assert.assertEquals(new Histogram().getPercentile(0.99), 0);
+    }
+}
@@ -0,0 +1,50 @@
+package org.korecky.jiracli.report;
+
+import org.korecky.jiracli.configuration.Team;
+import org.korecky.jiracli.dto.Assignee;
+import org.korecky.jiracli.dto.Component;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class TeamIndexTest {
+    private final TeamIndex teamIndex = new TeamIndex(List.of(
+            Team.builder().name("backend").members(List.of("User1@mycompany.com", "user2@mycompany.com")).components(List.of("API")).build(),
+            Team.builder().name("frontend").members(List.of("user3@mycompany.com", "user2@mycompany.com")).components(List.of("UI", "API")).build(),
+            Team.builder().name("qa").build()
+    ));
+
+    @Test
+    public void getTeamByAssigneeIgnoresCase() {
+        Assert.assertEquals(teamIndex.getTeam(assignee("user1@MyCompany.com"), List.of()), "backend");
+        Assert.assertEquals(teamIndex.getTeam(assignee("user3@mycompany.com"), List.of(component("API"))), "frontend");
+    }
+
+    @Test
+    public void getTeamOfMemberInSeveralTeamsIsTheFirstConfigured() {
+        Assert.assertEquals(teamIndex.getTeam(assignee("user2@mycompany.com"), List.of()), "backend");
+        Assert.assertEquals(teamIndex.getTeam(null, List.of(component("API"))), "backend");
+    }
+
+    @Test
+    public void getTeamOfUnassignedIssueByFirstKnownComponent() {
+        Assert.assertEquals(teamIndex.getTeam(null, List.of(component("Docs"), component("UI"), component("API"))), "frontend");
+    }
+
+    @Test
+    public void getTeamUnknown() {
+        // Components are used only for unassigned issues
+        Assert.assertEquals(teamIndex.getTeam(assignee("someone@mycompany.com"), List.of(component("UI"))), TeamIndex.UNKNOWN_TEAM);
+        Assert.assertEquals(teamIndex.getTeam(null, List.of(component("Docs"))), TeamIndex.UNKNOWN_TEAM);
+        Assert.assertEquals(teamIndex.getTeam(null, null), TeamIndex.UNKNOWN_TEAM);
+    }
+
+    private static Assignee assignee(String emailAddress) {
+        return Assignee.builder().emailAddress(emailAddress).build();
+    }
+
+    private static Component component(String name) {
+        return Component.builder().name(name).build();
+    }
+}
@@ -0,0 +1,159 @@
+package org.korecky.jiracli.sink;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.korecky.jiracli.TempFolders;
+import org.korecky.jiracli.configuration.Output;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ReportSinkTest {
+    private Path folder;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = TempFolders.create("report-sink-test");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        TempFolders.delete(folder);
+    }
+
+    @Test
+    public void csvWritesFilePerSheetAndQuotesSpecialCharacters() throws IOException {
+        try (ReportSink sink = ReportFormat.of("csv").open(folder, "Sprint 1", new Output())) {
+            write(sink);
+            sink.commit();
+        }
+        Assert.assertEquals(read("Sprint 1 Epics planned.csv"), "Epic name,Story Points\r\n\"Epic, \"\"first\"\"\",3.5\r\nOthers,\r\n");
+        Assert.assertEquals(read("Sprint 1 VelocityOfTeams.csv"), "Sprint,Total\r\nSprint 1,8\r\n");
+    }
+
+    @Test
+    public void csvWritesPlainDecimals() throws IOException {
+        try (ReportSink sink = ReportFormat.CSV.open(folder, "Sprint 1", new Output())) {
+            SheetWriter numbers = sink.createSheet("Numbers", List.of("Value"));
+            numbers.number(1.0E7).endRow();
+            numbers.number(0.000125).endRow();
+            numbers.number(-2.50).endRow();
+            sink.commit();
+        }
+        Assert.assertEquals(read("Sprint 1 Numbers.csv"), "Value\r\n10000000\r\n0.000125\r\n-2.5\r\n");
+    }
+
+    @Test
+    public void jsonLinesWritesRowPerLineWithoutEmptyCells() throws IOException {
+        try (ReportSink sink = ReportFormat.of("JSONL").open(folder, "Sprint 1", new Output())) {
+            write(sink);
+            sink.commit();
+        }
+        Assert.assertEquals(read("Sprint 1.jsonl"),
+                "{\"sheet\":\"Epics planned\",\"Epic name\":\"Epic, \\\"first\\\"\",\"Story Points\":3.5}\n"
+                        + "{\"sheet\":\"Epics planned\",\"Epic name\":\"Others\"}\n"
+                        + "{\"sheet\":\"VelocityOfTeams\",\"Sprint\":\"Sprint 1\",\"Total\":8.0}\n");
+    }
+
+    @Test
+    public void jsonLinesKeysAreUnique() throws IOException {
+        try (ReportSink sink = ReportFormat.JSONL.open(folder, "Sprint 1", new Output())) {
+            // Teams named like the sheet key and like the fixed columns of the velocity sheet
+            sink.createSheet("VelocityOfTeams", List.of("Sprint", "sheet", "Sprint", "Total", "Total"))
+                    .text("Sprint 1").number(1).number(2).number(3).number(6).endRow();
+            sink.commit();
+        }
+        Assert.assertEquals(read("Sprint 1.jsonl"),
+                "{\"sheet\":\"VelocityOfTeams\",\"Sprint\":\"Sprint 1\",\"sheet (2)\":1.0,\"Sprint (2)\":2.0,\"Total\":3.0,\"Total (2)\":6.0}\n");
+    }
+
+    @Test
+    public void xlsxWritesSheetPerReportSheet() throws IOException {
+        try (ReportSink sink = ReportFormat.XLSX.open(folder, "Sprint 1", new Output())) {
+            write(sink);
+            sink.commit();
+        }
+        try (Workbook workbook = new XSSFWorkbook(folder.resolve("Sprint 1.xlsx").toFile())) {
+            Assert.assertEquals(workbook.getNumberOfSheets(), 2);
+            Sheet epics = workbook.getSheet(" Epics planned");
+            Assert.assertEquals(epics.getRow(0).getCell(0).getStringCellValue(), "Epic name");
+            Assert.assertEquals(epics.getRow(0).getCell(1).getStringCellValue(), "Story Points");
+            Assert.assertEquals(epics.getRow(1).getCell(0).getStringCellValue(), "Epic, \"first\"");
+            Assert.assertEquals(epics.getRow(1).getCell(1).getCellType(), CellType.NUMERIC);
+            Assert.assertEquals(epics.getRow(1).getCell(1).getNumericCellValue(), 3.5);
+            Assert.assertEquals(epics.getRow(2).getCell(0).getStringCellValue(), "Others");
+            Assert.assertNull(epics.getRow(2).getCell(1));
+            Assert.assertEquals(epics.getLastRowNum(), 2);
+
+            Sheet velocity = workbook.getSheet("VelocityOfTeams");
+            Assert.assertEquals(velocity.getRow(0).getCell(1).getStringCellValue(), "Total");
+            Assert.assertEquals(velocity.getRow(1).getCell(1).getNumericCellValue(), 8.0);
+        } catch (InvalidFormatException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Test
+    public void closeWithoutCommitLeavesNothing() throws IOException {
+        for (ReportFormat format : ReportFormat.values()) {
+            try (ReportSink sink = format.open(folder, "Sprint 1", new Output())) {
+                write(sink);
+            }
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            Assert.assertEquals(files.count(), 0L);
+        }
+    }
+
+    @Test
+    public void xlsxDeletesTemporaryFilesOnCommitAndAbort() throws IOException {
+        Path tempFolder = Files.createDirectories(folder.resolve("poi"));
+        Output output = Output.builder().tempFolder(tempFolder.toString()).build();
+        try {
+            for (boolean commit : new boolean[]{true, false}) {
+                try (ReportSink sink = ReportFormat.XLSX.open(folder, "Sprint " + commit, output)) {
+                    write(sink);
+                    // The sheets are streamed through temporary files
+                    Assert.assertTrue(fileCount(tempFolder) > 0);
+                    if (commit)
+                        sink.commit();
+                }
+                Assert.assertEquals(fileCount(tempFolder), 0L, commit ? "commit" : "abort");
+            }
+        } finally {
+            // The strategy is global to the JVM, the folder is deleted after the test
+            TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy());
+        }
+    }
+
+    private static long fileCount(Path folder) throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static void write(ReportSink sink) throws IOException {
+        SheetWriter epics = sink.createSheet(" Epics planned", List.of("Epic name", "Story Points"));
+        epics.text("Epic, \"first\"").number(3.5).endRow();
+        epics.text("Others").blank().endRow();
+        sink.createSheet("VelocityOfTeams", List.of("Sprint", "Total"))
+                .text("Sprint 1").number(8).endRow();
+    }
+
+    private String read(String file) throws IOException {
+        return Files.readString(folder.resolve(file), StandardCharsets.UTF_8);
+    }
+}